@@ -0,0 +1,48 @@
+package armameeldoparti.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks entry point class.
+ *
+ * <p>Runs the benchmarks with the usual JMH command line options, always adding the garbage collector profiler so the allocation rate is reported
+ * along with the throughput and the average time.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public final class BenchmarksRunner {
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Empty, private constructor.
+   */
+  private BenchmarksRunner() {
+    // Body not needed
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args JMH command line options, for example a regular expression to choose the benchmarks to run.
+   *
+   * @throws CommandLineOptionException If the command line options are not valid.
+   * @throws RunnerException            If the benchmarks could not be run.
+   */
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                                   .addProfiler(GCProfiler.class)
+                                   .build()).run();
+  }
+}
@@ -0,0 +1,189 @@
+package armameeldoparti.benchmarks;
+
+import armameeldoparti.headless.SyntheticRosters;
+import armameeldoparti.headless.SyntheticRosters.AnchoragesLayout;
+import armameeldoparti.headless.SyntheticRosters.SkillDistribution;
+import armameeldoparti.models.Distribution;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.TeamFormat;
+import armameeldoparti.utils.common.PlayersLimitsReader;
+import armameeldoparti.utils.mixers.BySkillPointsMixer;
+import armameeldoparti.utils.mixers.RandomMixer;
+
+import java.io.IOException;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Players mixers benchmark class.
+ *
+ * <p>Measures the distribution methods of {@link RandomMixer} and {@link BySkillPointsMixer} over {@link SyntheticRosters}, without creating any
+ * view. The rosters are parameterized by the number of teams, how the skill points are spread among the players and, when considering anchorages,
+ * how the anchored players are grouped.
+ *
+ * <p>Every invocation creates its own teams and distribution, so that cost is included in the results.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+public class PlayersMixerBenchmark {
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @param rosterState Roster to distribute.
+   *
+   * @return The players distributed randomly, without considering anchorages.
+   */
+  @Benchmark
+  public Distribution randomWithoutAnchorages(RosterState rosterState) {
+    return rosterState.getRandomMixer()
+                      .withoutAnchorages(rosterState.getRoster());
+  }
+
+  /**
+   * @param rosterState Roster to distribute.
+   *
+   * @return The players distributed randomly, considering anchorages.
+   */
+  @Benchmark
+  public Distribution randomWithAnchorages(AnchoredRosterState rosterState) {
+    return rosterState.getRandomMixer()
+                      .withAnchorages(rosterState.getRoster());
+  }
+
+  /**
+   * @param rosterState Roster to distribute.
+   *
+   * @return The players distributed by their skill points, without considering anchorages.
+   */
+  @Benchmark
+  public Distribution bySkillPointsWithoutAnchorages(RosterState rosterState) {
+    return rosterState.getBySkillPointsMixer()
+                      .withoutAnchorages(rosterState.getRoster());
+  }
+
+  /**
+   * @param rosterState Roster to distribute.
+   *
+   * @return The players distributed by their skill points, considering anchorages.
+   */
+  @Benchmark
+  public Distribution bySkillPointsWithAnchorages(AnchoredRosterState rosterState) {
+    return rosterState.getBySkillPointsMixer()
+                      .withAnchorages(rosterState.getRoster());
+  }
+
+  // ---------- Nested classes -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Generated roster, built as the program does before distributing the players.
+   *
+   * <p>The players limit per position is read from the distribution file of the format chosen with the {@code armameeldoparti.format} property, as
+   * the program does.
+   */
+  @State(Scope.Thread)
+  public static class RosterState {
+
+    // ---------- Private constants ------------------------------------------------------------------------------------------------------------------
+
+    private static final long RANDOM_SEED = 1;
+
+    // ---------- Private fields ---------------------------------------------------------------------------------------------------------------------
+
+    @Param({"2", "4", "8"})
+    private int teamsCount;
+
+    @Param
+    private SkillDistribution skillDistribution;
+
+    private BySkillPointsMixer bySkillPointsMixer;
+
+    private RandomMixer randomMixer;
+
+    private Roster roster;
+
+    // ---------- Public methods ---------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Creates the roster and the mixers.
+     *
+     * @throws IOException If the distribution file could not be read.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+      roster = SyntheticRosters.create(new TeamFormat(PlayersLimitsReader.read()), teamsCount, skillDistribution, getAnchoragesLayout(),
+                                       new Random(RANDOM_SEED));
+
+      bySkillPointsMixer = new BySkillPointsMixer();
+      randomMixer = new RandomMixer();
+    }
+
+    // ---------- Protected methods ------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return How the anchored players are grouped, if the roster has anchorages.
+     */
+    protected AnchoragesLayout getAnchoragesLayout() {
+      return AnchoragesLayout.NONE;
+    }
+
+    // ---------- Getters ----------------------------------------------------------------------------------------------------------------------------
+
+    public BySkillPointsMixer getBySkillPointsMixer() {
+      return bySkillPointsMixer;
+    }
+
+    public RandomMixer getRandomMixer() {
+      return randomMixer;
+    }
+
+    public Roster getRoster() {
+      return roster;
+    }
+  }
+
+  /**
+   * Generated roster with anchored players.
+   */
+  @State(Scope.Thread)
+  public static class AnchoredRosterState extends RosterState {
+
+    // ---------- Private fields ---------------------------------------------------------------------------------------------------------------------
+
+    @Param({"PAIRS", "LARGE", "MIXED"})
+    private AnchoragesLayout anchoragesLayout;
+
+    // ---------- Protected methods ------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return How the anchored players are grouped.
+     */
+    @Override
+    protected AnchoragesLayout getAnchoragesLayout() {
+      return anchoragesLayout;
+    }
+  }
+}
@@ -6,13 +6,19 @@ import armameeldoparti.controllers.MainMenuController;
 import armameeldoparti.controllers.NamesInputController;
 import armameeldoparti.controllers.ResultsController;
 import armameeldoparti.controllers.SkillPointsInputController;
+import armameeldoparti.headless.BatchMixing;
+import armameeldoparti.headless.FairnessSimulation;
+import armameeldoparti.headless.MixingServer;
 import armameeldoparti.models.Player;
+import armameeldoparti.models.TeamFormat;
 import armameeldoparti.models.enums.Error;
 import armameeldoparti.models.enums.Position;
 import armameeldoparti.models.enums.ProgramView;
 import armameeldoparti.utils.common.CommonFields;
 import armameeldoparti.utils.common.CommonFunctions;
 import armameeldoparti.utils.common.Constants;
+import armameeldoparti.utils.common.PlayersLimitsReader;
+import armameeldoparti.utils.common.StartupTimings;
 import armameeldoparti.utils.common.custom.graphical.ui.CustomOptionPaneUI;
 import armameeldoparti.views.AnchoragesView;
 import armameeldoparti.views.HelpView;
@@ -26,18 +32,17 @@ import java.awt.Font;
 import java.awt.FontFormatException;
 import java.awt.GraphicsEnvironment;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 
+import java.util.Arrays;
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
 import java.util.stream.IntStream;
 
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.ToolTipManager;
 import javax.swing.UIManager;
 import javax.swing.border.EmptyBorder;
@@ -54,6 +59,15 @@ import javax.swing.plaf.FontUIResource;
  */
 public final class Main {
 
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final String PHASE_CONTROLLERS = "Controladores";
+  private static final String PHASE_FONT = "Fuente";
+  private static final String PHASE_GRAPHICAL_PROPERTIES = "Propiedades gráficas";
+  private static final String PHASE_MAIN_MENU = "Menú principal";
+  private static final String PHASE_PLAYERS_DISTRIBUTION = "Distribución de jugadores";
+  private static final String PHASE_PLAYERS_SETS = "Conjuntos de jugadores";
+
   // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
 
   /**
@@ -68,15 +82,36 @@ public final class Main {
   /**
    * Starts the program by initializing the fields needed along with the program's graphical properties, and making the main menu view visible.
    *
-   * @param args Program arguments (not used).
+   * <p>If the first argument is {@link BatchMixing#FLAG}, {@link MixingServer#FLAG} or {@link FairnessSimulation#FLAG}, the program runs in batch,
+   * server or simulation mode instead, with the remaining arguments, and never initializes the GUI.
+   *
+   * @param args Program arguments.
    */
   public static void main(String[] args) {
+    if (args.length > 0 && args[0].equals(BatchMixing.FLAG)) {
+      System.exit(BatchMixing.run(Arrays.copyOfRange(args, 1, args.length)));
+    }
+
+    if (args.length > 0 && args[0].equals(FairnessSimulation.FLAG)) {
+      System.exit(FairnessSimulation.run(Arrays.copyOfRange(args, 1, args.length)));
+    }
+
+    if (args.length > 0 && args[0].equals(MixingServer.FLAG)) {
+      int exitStatus = MixingServer.start(Arrays.copyOfRange(args, 1, args.length));
+
+      if (exitStatus != 0) {
+        System.exit(exitStatus);
+      }
+
+      return;
+    }
+
     // Establishes the main monitor as the active monitor by default
     CommonFields.setActiveMonitor(GraphicsEnvironment.getLocalGraphicsEnvironment()
                                                      .getDefaultScreenDevice());
     CommonFields.setAnchoragesEnabled(false);
     CommonFields.setControllersMap(new EnumMap<>(ProgramView.class));
-    CommonFields.setPlayersLimitPerPosition(new EnumMap<>(Position.class));
+    CommonFields.setControllersFactoriesMap(new EnumMap<>(ProgramView.class));
     CommonFields.setPlayersSets(new TreeMap<>());
     CommonFields.setPositionsMap(Map.of(Position.CENTRAL_DEFENDER, Constants.POSITION_CENTRAL_DEFENDERS,
                                         Position.LATERAL_DEFENDER, Constants.POSITION_LATERAL_DEFENDERS,
@@ -84,76 +119,102 @@ public final class Main {
                                         Position.FORWARD, Constants.POSITION_FORWARDS,
                                         Position.GOALKEEPER, Constants.POSITION_GOALKEEPERS));
 
-    setUpGeneralGraphicalProperties();
-    setPlayersDistribution();
-    populatePlayersSets();
-    setUpControllers();
+    StartupTimings.measure(PHASE_GRAPHICAL_PROPERTIES, Main::setUpGeneralGraphicalProperties);
+    StartupTimings.measure(PHASE_FONT, Main::setUpProgramFont);
+    StartupTimings.measure(PHASE_PLAYERS_DISTRIBUTION, Main::setPlayersDistribution);
+    StartupTimings.measure(PHASE_PLAYERS_SETS, Main::populatePlayersSets);
+    StartupTimings.measure(PHASE_CONTROLLERS, Main::setUpControllers);
+
+    SwingUtilities.invokeLater(() -> {
+      StartupTimings.measure(PHASE_MAIN_MENU, ((MainMenuController) CommonFunctions.getController(ProgramView.MAIN_MENU))::showView);
 
-    SwingUtilities.invokeLater(((MainMenuController) CommonFunctions.getController(ProgramView.MAIN_MENU))::showView);
+      if (Boolean.getBoolean(Constants.PROPERTY_STARTUP_REPORT)) {
+        System.err.println(StartupTimings.getReport());
+      }
+
+      // The training run creates every view and exits, so all the classes that the GUI needs end up in the class-data-sharing archive
+      if (Boolean.getBoolean(Constants.PROPERTY_TRAINING_RUN)) {
+        for (ProgramView programView : ProgramView.values()) {
+          CommonFunctions.getController(programView);
+        }
+
+        System.exit(0);
+      }
+
+      if (Boolean.parseBoolean(System.getProperty(Constants.PROPERTY_PREWARM_VIEWS, Boolean.TRUE.toString()))) {
+        prewarmControllers();
+      }
+    });
   }
 
   // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
 
   /**
-   * Populates the players sets with empty players.
+   * Populates the players sets with empty players, as many per position as needed to fill that position in every team.
    */
   private static void populatePlayersSets() {
     for (Position position : Position.values()) {
       CommonFields.getPlayersSets()
                   .put(position, IntStream.range(0, CommonFields.getPlayersLimitPerPosition()
-                                                                .get(position) * 2)
+                                                                .get(position) * CommonFields.getTeamsCount())
                                           .mapToObj(_ -> new Player("", position))
                                           .toList());
     }
   }
 
   /**
-   * Gets the number of players for each position per team using regular expressions.
-   *
-   * <p>{@code REGEX_PDA_DATA_RETRIEVE}: Retrieves the lines that start with C, L, M, F, or G, followed by at least one '>' character (these are the lines that
-   * matters in the .pda file).
-   * <p>{@code REGEX_PLAYERS_COUNT}: Gets the part of the line that is not a number that we are interested in.
+   * Reads the number of teams chosen with the teams property, and the number of players for each position per team from the .pda file of the chosen
+   * format, and sets them as the current ones.
    *
-   * <p>If the .pda file is modified in terms of the order of the important lines, it must be taken into account that {@code Position.values()[index]}
-   * trusts that what is found corresponds to the order in which the values in the Position enum are declared. Idem, if the order of the Position enum
-   * values are changed, it should be noted that {@code Position.values()[index]} trusts the order in which the data will be retrieved from the .pda
-   * file and, therefore, you should review the order of the important lines in the file.
+   * @see PlayersLimitsReader#read()
    */
   private static void setPlayersDistribution() {
-    try (
-      BufferedReader buffer = new BufferedReader(
-                                new InputStreamReader(
-                                  Objects.requireNonNull(CommonFunctions.class
-                                                                        .getClassLoader()
-                                                                        .getResourceAsStream(Constants.PATH_DOCS + Constants.FILENAME_PDA))
-                                )
-                              )
-    ) {
-      List<String> filteredLines = buffer.lines()
-                                         .filter(line -> line.matches(Constants.REGEX_PDA_DATA_RETRIEVE))
-                                         .toList();
-
-      IntStream.range(0, filteredLines.size())
-               .forEach(index -> CommonFields.getPlayersLimitPerPosition()
-                                             .put(Position.values()[index],
-                                                  Integer.parseInt(filteredLines.get(index)
-                                                                                .replaceAll(Constants.REGEX_PLAYERS_COUNT, ""))));
+    int teamsCount = Integer.getInteger(Constants.PROPERTY_TEAMS_COUNT, Constants.DEFAULT_TEAMS_COUNT);
+
+    if (teamsCount < Constants.MIN_TEAMS_COUNT) {
+      CommonFunctions.exitProgram(Error.ERROR_FILES);
+    }
+
+    CommonFields.setTeamsCount(teamsCount);
+
+    try {
+      CommonFields.setTeamFormat(new TeamFormat(PlayersLimitsReader.read()));
     } catch (IOException _) {
       CommonFunctions.exitProgram(Error.ERROR_FILES);
     }
   }
 
   /**
-   * Creates the controllers and assigns their corresponding view to control.
+   * Registers how to create every controller along with its view. They are created the first time they are requested.
+   *
+   * @see CommonFunctions#getController(ProgramView)
    */
   private static void setUpControllers() {
-    CommonFields.getControllersMap()
-                .putAll(Map.of(ProgramView.MAIN_MENU, new MainMenuController(new MainMenuView()),
-                               ProgramView.HELP, new HelpController(new HelpView()),
-                               ProgramView.NAMES_INPUT, new NamesInputController(new NamesInputView()),
-                               ProgramView.ANCHORAGES, new AnchoragesController(new AnchoragesView()),
-                               ProgramView.SKILL_POINTS, new SkillPointsInputController(new SkillPointsInputView()),
-                               ProgramView.RESULTS, new ResultsController(new ResultsView())));
+    CommonFields.getControllersFactoriesMap()
+                .putAll(Map.of(ProgramView.MAIN_MENU, () -> new MainMenuController(new MainMenuView()),
+                               ProgramView.HELP, () -> new HelpController(new HelpView()),
+                               ProgramView.NAMES_INPUT, () -> new NamesInputController(new NamesInputView()),
+                               ProgramView.ANCHORAGES, () -> new AnchoragesController(new AnchoragesView()),
+                               ProgramView.SKILL_POINTS, () -> new SkillPointsInputController(new SkillPointsInputView()),
+                               ProgramView.RESULTS, () -> new ResultsController(new ResultsView())));
+  }
+
+  /**
+   * Creates the controllers that were not requested yet, once the main menu is visible, so the first navigation to each view does not have to wait
+   * for it to be built.
+   *
+   * <p>Swing components must be created in the event dispatch thread, so every controller is created in its own event, after a delay that lets the
+   * main menu be painted first. The user events that arrive in the meantime are handled between them.
+   */
+  private static void prewarmControllers() {
+    Timer prewarmTimer = new Timer(Constants.PREWARM_VIEWS_DELAY, _ -> {
+      for (ProgramView programView : ProgramView.values()) {
+        SwingUtilities.invokeLater(() -> CommonFunctions.getController(programView));
+      }
+    });
+
+    prewarmTimer.setRepeats(false);
+    prewarmTimer.start();
   }
 
   /**
@@ -197,7 +258,12 @@ public final class Main {
                   .setInitialDelay(Constants.TOOLTIP_INITIAL_DELAY);
     ToolTipManager.sharedInstance()
                   .setDismissDelay(Constants.TOOLTIP_DISMISS_DELAY);
+  }
 
+  /**
+   * Creates and registers the program font, and sets it as the font of every GUI component.
+   */
+  private static void setUpProgramFont() {
     try {
       Font programFont = Font.createFont(Font.TRUETYPE_FONT,
                                          Objects.requireNonNull(CommonFunctions.class
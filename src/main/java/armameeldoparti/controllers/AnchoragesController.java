@@ -1,20 +1,22 @@
 package armameeldoparti.controllers;
 
 import armameeldoparti.models.Player;
-import armameeldoparti.models.Team;
+import armameeldoparti.models.TeamFormat;
 import armameeldoparti.models.enums.Position;
 import armameeldoparti.models.enums.ProgramView;
 import armameeldoparti.utils.common.CommonFields;
 import armameeldoparti.utils.common.CommonFunctions;
 import armameeldoparti.utils.common.Constants;
+import armameeldoparti.utils.mixers.RandomMixer;
+import armameeldoparti.utils.validators.AnchoragesValidator;
 import armameeldoparti.views.AnchoragesView;
 
 import java.awt.Component;
+import java.awt.event.ItemEvent;
 
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.IntStream;
 
 import javax.swing.JCheckBox;
@@ -36,6 +38,10 @@ public class AnchoragesController extends Controller<AnchoragesView> {
   private int anchoragesCount;
   private int anchoredPlayersCount;
 
+  private int[] checkedPlayersPerPosition;
+
+  private AnchoragesValidator anchoragesValidator;
+
   // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
 
   /**
@@ -78,7 +84,7 @@ public class AnchoragesController extends Controller<AnchoragesView> {
    * @param parentComponent Graphical component where the dialog windows associated with the event should be displayed.
    */
   public void finishButtonEvent(Component parentComponent) {
-    if (!validAnchoragesCombination(0, Arrays.asList(new Team(0), new Team(1)))) {
+    if (!anchoragesValidator.isFeasible()) {
       CommonFunctions.showMessageDialog(parentComponent, "Existen conflictos entre anclajes", JOptionPane.WARNING_MESSAGE);
 
       return;
@@ -95,7 +101,7 @@ public class AnchoragesController extends Controller<AnchoragesView> {
   public void newAnchorageButtonEvent(Component parentComponent) {
     if (!validCheckedPlayersPerPosition()) {
       CommonFunctions.showMessageDialog(parentComponent,
-                                        "No puede haber más de la mitad de jugadores\nde una misma posición en un mismo anclaje",
+                                        "No puede haber en un mismo anclaje más jugadores\nde una misma posición de los que entran en un equipo",
                                         JOptionPane.WARNING_MESSAGE);
 
       return;
@@ -115,7 +121,8 @@ public class AnchoragesController extends Controller<AnchoragesView> {
     } else if (!validChecksCount(playersToAnchorCount)) {
       CommonFunctions.showMessageDialog(parentComponent,
                                         "No puede haber más de "
-                                        + Constants.MAX_PLAYERS_PER_ANCHORAGE
+                                        + CommonFields.getTeamFormat()
+                                                      .getMaxPlayersPerAnchorage()
                                         + " ni menos de "
                                         + Constants.MIN_PLAYERS_PER_ANCHORAGE
                                         + " jugadores en un mismo anclaje",
@@ -127,7 +134,8 @@ public class AnchoragesController extends Controller<AnchoragesView> {
     if (!validAnchoredPlayersCount(playersToAnchorCount)) {
       CommonFunctions.showMessageDialog(parentComponent,
                                         "No puede haber más de "
-                                        + Constants.MAX_ANCHORED_PLAYERS
+                                        + CommonFields.getTeamFormat()
+                                                      .getMaxAnchoredPlayers(CommonFields.getTeamsCount())
                                         + " jugadores anclados en total",
                                         JOptionPane.WARNING_MESSAGE);
 
@@ -167,6 +175,18 @@ public class AnchoragesController extends Controller<AnchoragesView> {
     }
   }
 
+  /**
+   * Updates the number of checked players and which players can still be added to the anchorage being built.
+   *
+   * @param event    Checkbox selection event.
+   * @param position Position of the player whose checkbox was toggled.
+   */
+  public void checkboxEvent(ItemEvent event, Position position) {
+    checkedPlayersPerPosition[position.ordinal()] += event.getStateChange() == ItemEvent.SELECTED ? 1 : -1;
+
+    updateCheckboxesAvailability();
+  }
+
   /**
    * Resets the controlled view to its default values.
    */
@@ -206,6 +226,8 @@ public class AnchoragesController extends Controller<AnchoragesView> {
   protected void setUpInitialState() {
     anchoragesCount = 0;
     anchoredPlayersCount = 0;
+    checkedPlayersPerPosition = new int[Position.values().length];
+    anchoragesValidator = new AnchoragesValidator(CommonFields.getPlayersLimitPerPosition(), CommonFields.getTeamsCount());
 
     view.getFinishButton()
         .setEnabled(false);
@@ -228,6 +250,9 @@ public class AnchoragesController extends Controller<AnchoragesView> {
         .addActionListener(_ -> clearAnchoragesButtonEvent());
     view.getBackButton()
         .addActionListener(_ -> backButtonEvent());
+    view.getCheckboxesMap()
+        .forEach((position, checkboxesSet) ->
+          checkboxesSet.forEach(checkbox -> checkbox.addItemListener(event -> checkboxEvent(event, position))));
   }
 
   // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
@@ -240,6 +265,8 @@ public class AnchoragesController extends Controller<AnchoragesView> {
   private void newAnchorage() {
     anchoragesCount++;
 
+    anchoragesValidator.addAnchorage(checkedPlayersPerPosition);
+
     view.getCheckboxesMap()
         .values()
         .stream()
@@ -312,23 +339,45 @@ public class AnchoragesController extends Controller<AnchoragesView> {
           .forEach(button -> button.setEnabled(true));
     }
 
-    if (Constants.MAX_ANCHORED_PLAYERS - anchoredPlayersCount < 2) {
-      view.getNewAnchorageButton()
-          .setEnabled(false);
-      view.getCheckboxesMap()
-          .values()
-          .stream()
-          .flatMap(List::stream)
-          .forEach(checkbox -> checkbox.setEnabled(!checkbox.isEnabled()));
-    } else {
-      view.getNewAnchorageButton()
-          .setEnabled(true);
+    int maxAnchoredPlayers = CommonFields.getTeamFormat()
+                                         .getMaxAnchoredPlayers(CommonFields.getTeamsCount());
+
+    view.getNewAnchorageButton()
+        .setEnabled(anchoragesCount < RandomMixer.MAX_ANCHORAGES
+                    && maxAnchoredPlayers - anchoredPlayersCount >= Constants.MIN_PLAYERS_PER_ANCHORAGE);
+
+    updateCheckboxesAvailability();
+  }
+
+  /**
+   * Enables only the checkboxes of the players that can be added to the anchorage being built.
+   *
+   * <p>A player can be added if there can be another anchorage and the anchorage would not exceed the players limit per anchorage, the anchored
+   * players limit or the players of its position that fit in a team, and if the existing anchorages along with the new one would still be possible to distribute. The checked players are always
+   * enabled, so they can be unchecked.
+   *
+   * <p>The feasibility of every possible anchorage is precomputed by the anchorages validator each time the anchorages change, so this only needs a
+   * constant time check per position.
+   */
+  private void updateCheckboxesAvailability() {
+    int checkedPlayersCount = Arrays.stream(checkedPlayersPerPosition)
+                                    .sum();
+
+    TeamFormat teamFormat = CommonFields.getTeamFormat();
+
+    int maxAnchoredPlayers = teamFormat.getMaxAnchoredPlayers(CommonFields.getTeamsCount());
+
+    boolean roomForAnotherPlayer = anchoragesCount < RandomMixer.MAX_ANCHORAGES
+                                   && checkedPlayersCount < teamFormat.getMaxPlayersPerAnchorage()
+                                   && anchoredPlayersCount + checkedPlayersCount < maxAnchoredPlayers
+                                   && maxAnchoredPlayers - anchoredPlayersCount >= Constants.MIN_PLAYERS_PER_ANCHORAGE;
+
+    for (Position position : Position.values()) {
+      boolean positionAvailable = roomForAnotherPlayer && anchoragesValidator.canBeExtended(checkedPlayersPerPosition, position.ordinal());
+
       view.getCheckboxesMap()
-          .values()
-          .stream()
-          .flatMap(List::stream)
-          .filter(checkbox -> !checkbox.isEnabled() && !checkbox.isSelected())
-          .forEach(checkbox -> checkbox.setEnabled(true));
+          .get(position)
+          .forEach(checkbox -> checkbox.setEnabled(checkbox.isSelected() || positionAvailable));
     }
   }
 
@@ -360,6 +409,8 @@ public class AnchoragesController extends Controller<AnchoragesView> {
       }
     }
 
+    anchoragesValidator.removeAnchorage(anchorageToDelete - 1);
+
     anchoragesCount--;
   }
 
@@ -460,14 +511,15 @@ public class AnchoragesController extends Controller<AnchoragesView> {
   /**
    * @param playersToAnchorCount Selected players to anchor.
    *
-   * @return Whether the number of selected players is at least 2 and at most MAX_PLAYERS_PER_ANCHORAGE.
+   * @return Whether the number of selected players is at least 2 and at most the maximum allowed per anchorage in the current format.
    */
   private boolean validChecksCount(int playersToAnchorCount) {
-    return playersToAnchorCount <= Constants.MAX_PLAYERS_PER_ANCHORAGE && playersToAnchorCount >= 2;
+    return playersToAnchorCount <= CommonFields.getTeamFormat()
+                                               .getMaxPlayersPerAnchorage() && playersToAnchorCount >= 2;
   }
 
   /**
-   * @return Whether more than half of any players set is checked.
+   * @return Whether more players of any players set than the ones that fit in a team are checked (half of them, with two teams).
    */
   private boolean validCheckedPlayersPerPosition() {
     return view.getCheckboxesMap()
@@ -475,7 +527,7 @@ public class AnchoragesController extends Controller<AnchoragesView> {
                .stream()
                .noneMatch(checkboxesSet -> checkboxesSet.stream()
                                                         .filter(JCheckBox::isSelected)
-                                                        .count() > checkboxesSet.size() / 2);
+                                                        .count() > checkboxesSet.size() / CommonFields.getTeamsCount());
   }
 
   /**
@@ -484,83 +536,7 @@ public class AnchoragesController extends Controller<AnchoragesView> {
    * @return Whether the number of selected players is at most the maximum allowed per anchorage.
    */
   private boolean validAnchoredPlayersCount(int playersToAnchorCount) {
-    return anchoredPlayersCount + playersToAnchorCount <= Constants.MAX_ANCHORED_PLAYERS;
-  }
-
-  /**
-   * Verifies recursively if the existing anchorages combination is possible to distribute (i.e.: no anchorages conflict exists) prior to perform the
-   * distribution itself.
-   *
-   * <p>It starts by gathering the first anchorage: if there's no conflict in the first team, then it is added to it. If not, it tries to add it to
-   * the second team. If the anchorage can't be added successfully to any team, then an anchorages conflict exists. This procedure is repeated
-   * recursively with every anchorage. When the final anchorage is reached, the resulting temporary teams are validated to return that as the
-   * recursion break condition.
-   *
-   * @param recursiveVerificationIndex Recursive index used to iterate through the existing anchorages.
-   * @param teams                      Empty, temporary teams.
-   *
-   * @return Whether the existing anchorages combination is possible to distribute.
-   */
-  private boolean validAnchoragesCombination(int recursiveVerificationIndex, List<Team> teams) {
-    if (recursiveVerificationIndex == CommonFunctions.getAnchorages()
-                                                     .size()) {
-      return validTeams(teams);
-    }
-
-    List<Player> anchorage = CommonFunctions.getAnchorages()
-                                            .get(recursiveVerificationIndex);
-
-    for (Team team : teams) {
-      if (!anchoragesConflictExists(team, anchorage)) {
-        anchorage.forEach(player -> team.getTeamPlayers()
-                                        .get(player.getPosition())
-                                        .add(player));
-
-        if (validAnchoragesCombination(recursiveVerificationIndex + 1, teams)) {
-          return true;
-        }
-
-        team.clear();
-      }
-    }
-
-    return false;
-  }
-
-  /**
-   * @param team      Temporary team.
-   * @param anchorage Anchorage to validate.
-   *
-   * @return Whether a given anchorage can be added to a given team without exceeding any players limit for their position sets.
-   */
-  private boolean anchoragesConflictExists(Team team, List<Player> anchorage) {
-    Map<Position, Integer> playersCountPerPosition = team.getPlayersCountPerPosition();
-
-    for (Player player : anchorage) {
-      int newCount = playersCountPerPosition.getOrDefault(player.getPosition(), 0) + 1;
-
-      if (newCount > CommonFields.getPlayersLimitPerPosition()
-                                 .get(player.getPosition())) {
-        return true;
-      }
-
-      playersCountPerPosition.put(player.getPosition(), newCount);
-    }
-
-    return false;
-  }
-
-  /**
-   * @param teams Temporary teams.
-   *
-   * @return Whether any of the given teams has any position set with more than its allowed players limit.
-   */
-  private boolean validTeams(List<Team> teams) {
-    return teams.stream()
-                .allMatch(team -> CommonFields.getPlayersLimitPerPosition()
-                                              .entrySet()
-                                              .stream()
-                                              .noneMatch(positionLimit -> team.getPlayersCountPerPosition()
-                                                                              .getOrDefault(positionLimit.getKey(), 0) > positionLimit.getValue()));
+    return anchoredPlayersCount + playersToAnchorCount <= CommonFields.getTeamFormat()
+                                                                      .getMaxAnchoredPlayers(CommonFields.getTeamsCount());
   }
-}
\ No newline at end of file
+}
@@ -295,7 +295,7 @@ public class NamesInputController extends Controller<NamesInputView> {
              .forEachOrdered(index -> view.getTextArea()
                                           .append((index + 1) + " - " + players.get(index)
                                                                                .getName()
-                                                  + (index < Constants.PLAYERS_TOTAL - 1 ? System.lineSeparator() : "")));
+                                                  + (index < players.size() - 1 ? System.lineSeparator() : "")));
   }
 
   /**
@@ -1,14 +1,17 @@
 package armameeldoparti.controllers;
 
+import armameeldoparti.models.Distribution;
 import armameeldoparti.models.Player;
-import armameeldoparti.models.Team;
-import armameeldoparti.models.enums.Position;
+import armameeldoparti.models.ResultsTableModel;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.enums.Error;
 import armameeldoparti.models.enums.ProgramView;
 import armameeldoparti.utils.common.CommonFields;
 import armameeldoparti.utils.common.CommonFunctions;
 import armameeldoparti.utils.common.Constants;
 import armameeldoparti.utils.common.custom.graphical.CustomTable;
-import armameeldoparti.utils.mixers.BySkillPointsMixer;
+import armameeldoparti.utils.mixers.MixingListener;
+import armameeldoparti.utils.mixers.PlayersMixing;
 import armameeldoparti.utils.mixers.RandomMixer;
 import armameeldoparti.views.ResultsView;
 
@@ -17,20 +20,27 @@ import java.awt.Component;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.JComponent;
+import javax.swing.JProgressBar;
 import javax.swing.JTable;
 import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
 
 /**
  * Results view controller.
  *
+ * <p>The players are distributed in a background thread, so the view keeps responding while a long distribution runs. Meanwhile, the view shows the
+ * distribution progress and the best distribution found so far, and the user can stop the distribution to keep the best ones found until then.
+ *
+ * <p>Random distributions show their seed, so any of them can be replayed exactly from the same players.
+ *
  * @author Bonino, Francisco Ignacio.
  *
  * @version 0.0.1
@@ -41,72 +51,79 @@ public class ResultsController extends Controller<ResultsView> {
 
   // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
 
-  private static final int TABLE_COLUMNS = 3;
+  private static final String PROPERTY_PROGRESS = "progress";
+
+  private static final Border CELL_BORDER = new EmptyBorder(Constants.INSETS_GENERAL);
 
   // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
 
-  private BySkillPointsMixer bySkillPointsMixer;
+  private int distributionRank;
 
-  private RandomMixer randomMixer;
+  private long randomSeed;
 
   private CustomTable table;
 
-  private Team team1;
-  private Team team2;
+  private List<Distribution> distributions;
+
+  private MixingWorker mixingWorker;
 
-  private List<Team> teams;
+  private ResultsTableModel tableModel;
+
+  private Roster roster;
 
   // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
 
   /**
    * Builds the results view controller.
    *
+   * <p>The results table and its model are created only once, since the team format and the number of teams do not change while the program runs.
+   * Every distribution is then shown by updating the table model.
+   *
    * @param resultsView View to control.
    */
   public ResultsController(ResultsView resultsView) {
     super(resultsView);
 
-    bySkillPointsMixer = new BySkillPointsMixer();
-
-    randomMixer = new RandomMixer();
+    tableModel = new ResultsTableModel(CommonFields.getPlayersLimitPerPosition(),
+                                       CommonFields.getPositionsMap(),
+                                       CommonFields.getTeamsCount(),
+                                       false);
 
-    team1 = new Team(1);
-    team2 = new Team(2);
+    view.setTable(new CustomTable(tableModel));
+    view.initializeInterface();
 
-    teams = new ArrayList<>();
+    table = (CustomTable) view.getTable();
 
+    overrideTableFormat();
     setUpListeners();
   }
 
   // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
 
   /**
-   * Creates the teams and the results table, applies the needed table format, fills the non-variable table cells and displays the distribution
-   * results.
+   * Builds the roster to distribute and starts distributing it in the background, showing the teams skill points row only when distributing by skill
+   * points. The results are displayed in the existing table once the distribution ends.
    */
   public void setUp() {
-    teams = (CommonFields.getDistribution() == Constants.MIX_RANDOM ? randomMix(Arrays.asList(team1, team2))
-                                                                    : bySkillPointsMix(Arrays.asList(team1, team2)));
+    roster = new Roster(CommonFields.getPlayersSets(),
+                        CommonFields.getPlayersLimitPerPosition(),
+                        CommonFields.getTeamsCount(),
+                        CommonFields.isAnchoragesEnabled() ? CommonFunctions.getAnchorages() : List.of());
 
-    view.setTable(new CustomTable(Constants.PLAYERS_PER_TEAM + CommonFields.getDistribution() + 1, TABLE_COLUMNS));
-    view.initializeInterface();
-
-    table = (CustomTable) view.getTable();
-
-    overrideTableFormat();
-    fillTableFields();
-    updateTable();
+    tableModel.setSkillShown(CommonFields.getDistribution() == Constants.MIX_BY_SKILL_POINTS);
 
     table.adjustCells();
 
-    view.pack();
+    view.updateFrameTitle();
+
+    mix();
   }
 
   /**
-   * Resets the teams, resets the controlled view to its default values and makes it invisible, and shows the corresponding previous view.
+   * Makes the controlled view invisible, resets it to its default values and shows the corresponding previous view.
    */
   public void backButtonEvent() {
-    resetTeams();
+    hideView();
     resetView();
 
     ProgramView previousView;
@@ -122,90 +139,65 @@ public class ResultsController extends Controller<ResultsView> {
   }
 
   /**
-   * Resets the teams, redistributes the players with the specified method and updates the results table.
+   * Redistributes the players with the specified method and updates the results table.
+   *
+   * <p>When distributing by skill points, no search is done: the next distribution found by the last search is shown, going back to the best one
+   * after the last.
    */
   public void remixButtonEvent() {
-    resetTeams();
+    if (CommonFields.getDistribution() == Constants.MIX_RANDOM) {
+      mix();
+
+      return;
+    }
 
-    teams = randomMix(Arrays.asList(team1, team2));
+    distributionRank = (distributionRank + 1) % distributions.size();
 
     updateTable();
   }
 
   /**
-   * Fills the table with the distribution results.
-   *
-   * <p>The table cells are filled trusting the positions order in the first column (same order as the Position enum).
-   *
-   * @see armameeldoparti.models.enums.Position
+   * Stops the running distribution. The best distributions found so far are shown, or the previous view if none was found yet.
    */
-  public void updateTable() {
-    var wrapper = new Object() {
-      int column = 1;
-      int row = 1;
-    };
-
-    teams.forEach(
-      team -> {
-        for (Position position : Position.values()) {
-          team.getTeamPlayers()
-              .get(position)
-              .forEach(player -> table.setValueAt(player.getName(), wrapper.row++, wrapper.column));
-        }
-
-        wrapper.column++;
-        wrapper.row = 1;
-      }
-    );
-
-    if (CommonFields.getDistribution() == Constants.MIX_BY_SKILL_POINTS) {
-      for (int teamIndex = 0; teamIndex < teams.size(); teamIndex++) {
-        table.setValueAt(teams.get(teamIndex)
-                              .getTeamPlayers()
-                              .values()
-                              .stream()
-                              .flatMap(List::stream)
-                              .mapToInt(Player::getSkillPoints)
-                              .reduce(0, Math::addExact),
-                         table.getRowCount() - 1,
-                         teamIndex + 1);
-      }
+  public void cancelButtonEvent() {
+    if (mixingWorker != null) {
+      mixingWorker.requestStop();
     }
-  }
 
-  /**
-   * Distributes the players randomly.
-   *
-   * @param teams Teams to populate randomly.
-   *
-   * @return The updated teams with the players distributed.
-   */
-  public List<Team> randomMix(List<Team> teams) {
-    return CommonFields.isAnchoragesEnabled() ? randomMixer.withAnchorages(teams) : randomMixer.withoutAnchorages(teams);
+    view.getCancelButton()
+        .setEnabled(false);
   }
 
   /**
-   * Distributes the players based on their skill points.
-   *
-   * @param teams Teams to populate by skill points.
-   *
-   * @return The updated teams with the players distributed.
+   * Fills the table with the current distribution results.
    */
-  public List<Team> bySkillPointsMix(List<Team> teams) {
-    return CommonFields.isAnchoragesEnabled() ? bySkillPointsMixer.withAnchorages(teams) : bySkillPointsMixer.withoutAnchorages(teams);
+  public void updateTable() {
+    tableModel.setDistribution(distributions.get(distributionRank));
   }
 
   // ---------- Protected methods --------------------------------------------------------------------------------------------------------------------
 
   /**
-   * Disposes the controlled view and creates a new one to control.
+   * Clears the results table and forgets the last distributed roster, keeping the view to be reused by the next distribution.
    */
   @Override
   protected void resetView() {
-    view.dispose();
+    if (mixingWorker != null) {
+      mixingWorker.requestStop();
+    }
 
-    setView(new ResultsView());
-    setUpListeners();
+    mixingWorker = null;
+
+    setMixingState(false);
+
+    view.getSeedLabel()
+        .setVisible(false);
+
+    tableModel.clear();
+
+    roster = null;
+    distributions = List.of();
+    distributionRank = 0;
   }
 
   @Override
@@ -219,57 +211,82 @@ public class ResultsController extends Controller<ResultsView> {
         .addActionListener(_ -> backButtonEvent());
     view.getRemixButton()
         .addActionListener(_ -> remixButtonEvent());
+    view.getCancelButton()
+        .addActionListener(_ -> cancelButtonEvent());
   }
 
   // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
 
   /**
-   * Fills the table cells whose texts do not change.
+   * Starts distributing the players of the roster with the specified method in the background. Any distribution still running is stopped, since its
+   * results would be discarded.
    */
-  private void fillTableFields() {
-    int rowCount = table.getRowCount() - 1;
-
-    Map<Position, String> positionsMap = CommonFields.getPositionsMap();
-
-    for (int teamIndex = 0; teamIndex < teams.size(); teamIndex++) {
-      table.setValueAt("EQUIPO " + (teamIndex + 1), 0, teamIndex + 1);
+  private void mix() {
+    if (mixingWorker != null) {
+      mixingWorker.requestStop();
     }
 
-    for (int row = 1; row < rowCount; row++) {
-      table.setValueAt(
-        positionsMap.get(
-          switch (row) {
-            case 1 -> Position.CENTRAL_DEFENDER;
-            case 2, 3 -> Position.LATERAL_DEFENDER;
-            case 4, 5 -> Position.MIDFIELDER;
-            default -> Position.FORWARD;
-          }
-        ),
-        row,
-        0
-      );
-    }
+    randomSeed = RandomMixer.newSeed();
+    mixingWorker = new MixingWorker();
 
-    if (CommonFields.getDistribution() == Constants.MIX_BY_SKILL_POINTS) {
-      for (int column = 0; column < teams.size(); column++) {
-        table.setValueAt(column == 0 ? positionsMap.get(Position.GOALKEEPER) : "Puntuación del equipo", table.getRowCount() + column - 2, 0);
+    mixingWorker.addPropertyChangeListener(event -> {
+      if (PROPERTY_PROGRESS.equals(event.getPropertyName()) && event.getSource() == mixingWorker) {
+        JProgressBar progressBar = view.getProgressBar();
+
+        progressBar.setIndeterminate(false);
+        progressBar.setValue((Integer) event.getNewValue());
       }
-    } else {
-      table.setValueAt(positionsMap.get(Position.GOALKEEPER), table.getRowCount() - 1, 0);
-    }
+    });
+
+    setMixingState(true);
+
+    mixingWorker.execute();
   }
 
   /**
-   * Resets both teams.
+   * Shows the distributions found by a finished distribution, starting from the best one.
+   *
+   * @param mixedDistributions Distributions found, from best to worst.
    */
-  private void resetTeams() {
-    teams.forEach(Team::clear);
-
-    CommonFields.getPlayersSets()
-                .values()
-                .stream()
-                .flatMap(List::stream)
-                .forEach(player -> player.setTeamNumber(0));
+  private void showDistributions(List<Distribution> mixedDistributions) {
+    distributions = mixedDistributions;
+    distributionRank = 0;
+
+    setMixingState(false);
+    updateTable();
+
+    table.adjustCells();
+
+    view.getSeedLabel()
+        .setText("Semilla: " + randomSeed);
+    view.getSeedLabel()
+        .setVisible(CommonFields.getDistribution() == Constants.MIX_RANDOM);
+    view.getRemixButton()
+        .setEnabled(CommonFields.getDistribution() == Constants.MIX_RANDOM || distributions.size() > 1);
+    view.pack();
+  }
+
+  /**
+   * Switches the view between the running distribution state, where only the progress bar and the stop button are usable, and the finished one.
+   *
+   * <p>The progress bar is indeterminate until the distribution reports its first progress, since the fast distributions never do.
+   *
+   * @param mixing Whether a distribution is running.
+   */
+  private void setMixingState(boolean mixing) {
+    JProgressBar progressBar = view.getProgressBar();
+
+    progressBar.setIndeterminate(mixing);
+    progressBar.setValue(0);
+    progressBar.setVisible(mixing);
+
+    view.getCancelButton()
+        .setEnabled(mixing);
+    view.getCancelButton()
+        .setVisible(mixing);
+    view.getRemixButton()
+        .setEnabled(!mixing);
+    view.pack();
   }
 
   /**
@@ -278,7 +295,8 @@ public class ResultsController extends Controller<ResultsView> {
    * <p>Row 0 and column 0 have dark green background and white foreground. The remaining cells will have black foreground.
    *
    * <p>The background color will be medium green if the cell shows any skill points related information. If the cell contains an anchored player
-   * name, its background will be the corresponding from the anchorages colors array. If not, its background will be light green.
+   * name, its background will be the corresponding from the anchorages colors array (starting over if there are more anchorages than colors). If not,
+   * its background will be light green.
    *
    * <p>The cell text will be centered if it shows any skill points related information or a team name. Otherwise, it will be left-aligned.
    */
@@ -291,11 +309,10 @@ public class ResultsController extends Controller<ResultsView> {
             public Component getTableCellRendererComponent(JTable myTable, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
               JComponent component = (JComponent) super.getTableCellRendererComponent(myTable, value, isSelected, hasFocus, row, column);
 
-              boolean mixBySkill = CommonFields.getDistribution() == Constants.MIX_BY_SKILL_POINTS && row == view.getTable()
-                                                                                                                 .getRowCount() - 1;
+              boolean mixBySkill = tableModel.isSkillRow(row);
 
               component.setOpaque(false);
-              component.setBorder(new EmptyBorder(Constants.INSETS_GENERAL));
+              component.setBorder(CELL_BORDER);
               
               if (row == 0 && column == 0) {
                 component.setBackground(Constants.COLOR_GREEN_MEDIUM);
@@ -339,16 +356,14 @@ public class ResultsController extends Controller<ResultsView> {
                 return component;
               }
 
-              Player playerOnCell = CommonFunctions.retrieveOptional(CommonFields.getPlayersSets()
-                                                                                 .values()
-                                                                                 .stream()
-                                                                                 .flatMap(List::stream)
-                                                                                 .filter(player -> player.getName() == value)
-                                                                                 .findFirst());
+              Player playerOnCell = tableModel.getPlayerAt(row, column);
+
+              boolean anchoredPlayer = playerOnCell != null && playerOnCell.getAnchorageNumber() != 0;
 
-              component.setBackground(playerOnCell.getAnchorageNumber() != 0 ? Constants.COLORS_ANCHORAGES
-                                                                                        .get(playerOnCell.getAnchorageNumber() - 1)
-                                                                             : Constants.COLOR_GREEN_LIGHT_WHITE);
+              component.setBackground(anchoredPlayer ? Constants.COLORS_ANCHORAGES
+                                                                .get((playerOnCell.getAnchorageNumber() - 1) % Constants.COLORS_ANCHORAGES
+                                                                                                                        .size())
+                                                     : Constants.COLOR_GREEN_LIGHT_WHITE);
               component.setForeground(Color.BLACK);
 
               ((DefaultTableCellRenderer) component).setHorizontalAlignment(SwingConstants.LEFT);
@@ -376,4 +391,83 @@ public class ResultsController extends Controller<ResultsView> {
           }
         );
   }
-}
\ No newline at end of file
+
+  // ---------- Nested classes -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Distributes the players of the roster in a background thread, publishing the best distribution found so far and the search progress, and
+   * showing the results in the Event Dispatch Thread once it finishes.
+   *
+   * <p>A worker that is no longer the controller's current one (because the view was left or a new distribution started) stops as soon as possible
+   * and its results are discarded.
+   */
+  private final class MixingWorker extends SwingWorker<List<Distribution>, Distribution> implements MixingListener {
+
+    private volatile boolean stopRequested;
+
+    @Override
+    public void bestDistributionFound(Distribution distribution) {
+      publish(distribution);
+    }
+
+    @Override
+    public void searchProgressed(double searchCoverage) {
+      setProgress((int) Math.clamp(searchCoverage * Constants.PROGRESS_BAR_MAX, 0, Constants.PROGRESS_BAR_MAX));
+    }
+
+    @Override
+    public boolean shouldStop() {
+      return stopRequested;
+    }
+
+    /**
+     * Asks the distribution to stop, keeping the best distributions found so far.
+     */
+    private void requestStop() {
+      stopRequested = true;
+    }
+
+    @Override
+    protected List<Distribution> doInBackground() {
+      return CommonFields.getDistribution() == Constants.MIX_RANDOM ? List.of(PlayersMixing.randomMix(roster, randomSeed))
+                                                                    : PlayersMixing.bySkillPointsMix(roster, this);
+    }
+
+    @Override
+    protected void process(List<Distribution> bestDistributions) {
+      if (this == mixingWorker) {
+        tableModel.setDistribution(bestDistributions.getLast());
+
+        table.adjustCells();
+
+        view.pack();
+      }
+    }
+
+    /**
+     * Shows the results of the distribution if it is still the current one.
+     *
+     * <p>The roster is built from the already validated user input, so a roster that cannot be distributed is an internal error. A distribution stopped
+     * before finding any result goes back to the previous view.
+     */
+    @Override
+    protected void done() {
+      if (this != mixingWorker) {
+        return;
+      }
+
+      try {
+        showDistributions(get());
+      } catch (InterruptedException exception) {
+        Thread.currentThread()
+              .interrupt();
+      } catch (ExecutionException exception) {
+        if (exception.getCause() instanceof CancellationException) {
+          backButtonEvent();
+        } else {
+          CommonFunctions.exitProgram(Error.ERROR_INTERNAL);
+        }
+      }
+    }
+  }
+}
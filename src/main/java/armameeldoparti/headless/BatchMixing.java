@@ -0,0 +1,369 @@
+package armameeldoparti.headless;
+
+import armameeldoparti.models.Distribution;
+import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.enums.Position;
+import armameeldoparti.utils.common.PlayersLimitsReader;
+import armameeldoparti.utils.mixers.ImprovedDistribution;
+import armameeldoparti.utils.mixers.MixingListener;
+import armameeldoparti.utils.mixers.PlayersMixing;
+import armameeldoparti.utils.mixers.RandomMixer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch mixing class.
+ *
+ * <p>Headless entry point that reads many rosters from a file or from the standard input and writes one distribution per roster to the standard
+ * output, as soon as each one is mixed. It only uses the mixing core and compile-time constants, so it never initializes the GUI.
+ *
+ * <p>Every roster is a block of lines separated from the next one by at least one blank line. Lines starting with {@code #} are comments, and a line
+ * starting with {@code @} names the roster. Every other line is a player: {@code <position> <skill points> <anchorage> <name>}, where the position
+ * is one of the .pda file keys (C, L, M, F or G), the anchorage is 0 for not anchored players, and the name may contain spaces. The number of teams
+ * is the one that fits all the players of the roster.
+ *
+ * <p>Every random distribution is written along with its seed, and running the same roster again with that seed replays it exactly.
+ *
+ * <p>With a time budget, every roster is distributed by the anytime mixer, and how the skill points spread improved over time is reported in the
+ * standard error output, so the quality bought by each budget can be measured.
+ *
+ * <p>Rosters that cannot be mixed are reported in the standard error output, and the remaining ones are still processed.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public final class BatchMixing {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final int EXIT_FAILURE = 1;
+  private static final int EXIT_SUCCESS = 0;
+  private static final int EXIT_USAGE = 2;
+  private static final int PLAYER_FIELDS = 4;
+
+  private static final String COMMENT_PREFIX = "#";
+  private static final String FLAG_RANDOM = "--random";
+  private static final String FLAG_SEED = "--seed";
+  private static final String FLAG_TIME_BUDGET = "--time-budget";
+  private static final String NAME_PREFIX = "@";
+  private static final String STDIN_PATH = "-";
+
+  // ---------- Public constants ---------------------------------------------------------------------------------------------------------------------
+
+  public static final String FLAG = "--batch";
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Empty, private constructor.
+   */
+  private BatchMixing() {
+    // Body not needed
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Mixes every roster of the input and writes the results.
+   *
+   * <p>The players are distributed by their skill points unless {@code --random} is specified, in which case {@code --seed} sets the seed of every
+   * roster instead of drawing a new one for each. With {@code --time-budget}, they are distributed by the anytime mixer, which keeps improving the
+   * by-skill-points heuristic result for the given milliseconds. The input is the file given as the last argument, or the standard input if there is
+   * none or if it is {@code -}.
+   *
+   * @param args Batch mode arguments: {@code [--random [--seed <seed>] | --time-budget <milliseconds>] [file]}.
+   *
+   * @return The exit status: 0 if every roster was mixed, 1 if any of them could not be mixed or the input could not be read, and 2 if the arguments
+   *         are not valid.
+   */
+  public static int run(String[] args) {
+    boolean random = false;
+
+    Duration timeBudget = null;
+
+    Long seed = null;
+
+    String inputPath = STDIN_PATH;
+
+    for (int argIndex = 0; argIndex < args.length; argIndex++) {
+      if (args[argIndex].equals(FLAG_RANDOM)) {
+        random = true;
+      } else if (args[argIndex].equals(FLAG_TIME_BUDGET) && argIndex < args.length - 1) {
+        timeBudget = parseTimeBudget(args[++argIndex]);
+
+        if (timeBudget == null) {
+          return printUsage();
+        }
+      } else if (args[argIndex].equals(FLAG_SEED) && argIndex < args.length - 1) {
+        try {
+          seed = Long.parseLong(args[++argIndex]);
+        } catch (NumberFormatException _) {
+          return printUsage();
+        }
+      } else if (argIndex == args.length - 1) {
+        inputPath = args[argIndex];
+      } else {
+        return printUsage();
+      }
+    }
+
+    if ((random && timeBudget != null) || (!random && seed != null)) {
+      return printUsage();
+    }
+
+    try (
+      BufferedReader reader = inputPath.equals(STDIN_PATH) ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                                                           : Files.newBufferedReader(Path.of(inputPath), StandardCharsets.UTF_8);
+      Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+    ) {
+      return mixAll(reader, writer, PlayersLimitsReader.read(), random, seed, timeBudget) ? EXIT_SUCCESS : EXIT_FAILURE;
+    } catch (IOException exception) {
+      System.err.println("No se pudo leer la entrada: " + exception.getMessage());
+
+      return EXIT_FAILURE;
+    }
+  }
+
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Reads the rosters one by one, mixing and writing each of them before reading the next one.
+   *
+   * @param reader                  Input with the rosters.
+   * @param writer                  Output for the distributions.
+   * @param playersLimitPerPosition Number of players per position that every team must have.
+   * @param random                  Whether to distribute the players randomly instead of by their skill points.
+   * @param seed                    Seed of every random distribution, or null to draw a new one for each roster.
+   * @param timeBudget              Time budget of the anytime mixer, or null to use the default by-skill-points distribution.
+   *
+   * @return Whether every roster was mixed.
+   *
+   * @throws IOException If the input cannot be read or the output cannot be written.
+   */
+  private static boolean mixAll(BufferedReader reader, Writer writer, Map<Position, Integer> playersLimitPerPosition, boolean random,
+                                Long seed, Duration timeBudget) throws IOException {
+    boolean allMixed = true;
+
+    int blockStartLine = 0;
+    int lineNumber = 0;
+    int rosterNumber = 0;
+
+    List<String> block = new ArrayList<>();
+
+    String line;
+
+    do {
+      line = reader.readLine();
+      lineNumber++;
+
+      if (line != null && !line.isBlank()) {
+        if (block.isEmpty()) {
+          blockStartLine = lineNumber;
+        }
+
+        if (!line.startsWith(COMMENT_PREFIX)) {
+          block.add(line.strip());
+        }
+
+        continue;
+      }
+
+      if (block.isEmpty()) {
+        continue;
+      }
+
+      rosterNumber++;
+
+      String rosterName = block.getFirst()
+                               .startsWith(NAME_PREFIX) ? block.removeFirst()
+                                                               .substring(NAME_PREFIX.length())
+                                                               .strip()
+                                                        : "Plantel " + rosterNumber;
+
+      try {
+        Roster roster = parseRoster(block, playersLimitPerPosition);
+
+        Distribution distribution;
+
+        if (random) {
+          long rosterSeed = seed != null ? seed : RandomMixer.newSeed();
+
+          distribution = PlayersMixing.randomMix(roster, rosterSeed);
+          rosterName += " (semilla " + rosterSeed + ")";
+        } else if (timeBudget != null) {
+          ImprovedDistribution improvedDistribution = PlayersMixing.anytimeBySkillPointsMix(roster, timeBudget, new MixingListener() {});
+
+          distribution = improvedDistribution.getDistribution();
+
+          System.err.println(rosterName + ": " + describeImprovement(improvedDistribution));
+        } else {
+          distribution = PlayersMixing.bySkillPointsMix(roster)
+                                      .getFirst();
+        }
+
+        writeDistribution(writer, rosterName, distribution, !random);
+      } catch (IllegalArgumentException exception) {
+        allMixed = false;
+
+        System.err.println(rosterName + " (líneas " + blockStartLine + " a " + (lineNumber - 1) + "): " + exception.getMessage());
+      }
+
+      block.clear();
+    } while (line != null);
+
+    return allMixed;
+  }
+
+  /**
+   * Prints how the batch mode must be used.
+   *
+   * @return The exit status for invalid arguments.
+   */
+  private static int printUsage() {
+    System.err.println("Uso: " + FLAG + " [" + FLAG_RANDOM + " [" + FLAG_SEED + " <semilla>] | " + FLAG_TIME_BUDGET + " <milisegundos>] [archivo]");
+
+    return EXIT_USAGE;
+  }
+
+  /**
+   * @param argument Time budget argument, in milliseconds.
+   *
+   * @return The time budget, or null if the argument is not a positive number.
+   */
+  private static Duration parseTimeBudget(String argument) {
+    try {
+      long milliseconds = Long.parseLong(argument);
+
+      return milliseconds > 0 ? Duration.ofMillis(milliseconds) : null;
+    } catch (NumberFormatException _) {
+      return null;
+    }
+  }
+
+  /**
+   * @param improvedDistribution Result of the anytime mixer.
+   *
+   * @return A single line with the skill points spread of the seed and of the result, the search duration and statistics, and every improvement
+   *         with the moment it was found.
+   */
+  private static String describeImprovement(ImprovedDistribution improvedDistribution) {
+    StringBuilder description = new StringBuilder("diferencia ").append(improvedDistribution.getSeedSkillSpread())
+                                                                 .append(" -> ")
+                                                                 .append(improvedDistribution.getDistribution()
+                                                                                             .getSkillSpread())
+                                                                 .append(String.format(" en %.1f ms", improvedDistribution.getElapsedNanos() / 1e6))
+                                                                 .append(" (")
+                                                                 .append(improvedDistribution.getIterations())
+                                                                 .append(" movimientos, ")
+                                                                 .append(improvedDistribution.getAcceptedMoves())
+                                                                 .append(" aceptados)");
+
+    for (ImprovedDistribution.Improvement improvement : improvedDistribution.getImprovements()) {
+      description.append(String.format("; %.1f ms: %d", improvement.getElapsedNanos() / 1e6, improvement.getSkillSpread()));
+    }
+
+    return description.toString();
+  }
+
+  /**
+   * Builds a roster from the player lines of a block.
+   *
+   * @param playerLines             Player lines of the block.
+   * @param playersLimitPerPosition Number of players per position that every team must have.
+   *
+   * @return The roster described by the lines.
+   *
+   * @throws IllegalArgumentException If any line is not valid, if the players do not fill a whole number of teams, or if any anchorage does not
+   *                                  have a valid number of players.
+   *
+   * @see RosterAssembler
+   */
+  private static Roster parseRoster(List<String> playerLines, Map<Position, Integer> playersLimitPerPosition) {
+    RosterAssembler rosterAssembler = new RosterAssembler(playersLimitPerPosition);
+
+    for (String playerLine : playerLines) {
+      String[] fields = playerLine.split("\\s+", PLAYER_FIELDS);
+
+      if (fields.length < PLAYER_FIELDS) {
+        throw new IllegalArgumentException("Jugador inválido: " + playerLine);
+      }
+
+      try {
+        rosterAssembler.addPlayer(fields[0], Integer.parseInt(fields[1]), Integer.parseInt(fields[2]), fields[3]);
+      } catch (NumberFormatException _) {
+        throw new IllegalArgumentException("Jugador inválido: " + playerLine);
+      }
+    }
+
+    return rosterAssembler.build();
+  }
+
+  /**
+   * Writes a distribution: the roster name and then one line per team with its players grouped by position.
+   *
+   * @param writer       Output for the distribution.
+   * @param rosterName   Name of the roster.
+   * @param distribution Distribution to write.
+   * @param showSkill    Whether to write the skill points of every team.
+   *
+   * @throws IOException If the output cannot be written.
+   */
+  private static void writeDistribution(Writer writer, String rosterName, Distribution distribution, boolean showSkill) throws IOException {
+    StringBuilder output = new StringBuilder(rosterName).append(System.lineSeparator());
+
+    for (int teamIndex = 0; teamIndex < distribution.getTeamsCount(); teamIndex++) {
+      output.append("EQUIPO ")
+            .append(teamIndex + 1);
+
+      if (showSkill) {
+        output.append(" (")
+              .append(distribution.getTeamSkill(teamIndex))
+              .append(')');
+      }
+
+      output.append(':');
+
+      for (Position position : Position.values()) {
+        output.append(' ')
+              .append(RosterAssembler.getPositionKey(position))
+              .append(' ');
+
+        List<Player> players = distribution.getTeamPlayers(teamIndex)
+                                           .get(position);
+
+        for (int playerIndex = 0; playerIndex < players.size(); playerIndex++) {
+          output.append(playerIndex == 0 ? "" : ", ")
+                .append(players.get(playerIndex)
+                               .getName());
+        }
+
+        output.append(position.ordinal() == Position.values().length - 1 ? "" : ";");
+      }
+
+      output.append(System.lineSeparator());
+    }
+
+    writer.append(output)
+          .append(System.lineSeparator())
+          .flush();
+  }
+}
@@ -0,0 +1,502 @@
+package armameeldoparti.headless;
+
+import armameeldoparti.headless.SyntheticRosters.AnchoragesLayout;
+import armameeldoparti.headless.SyntheticRosters.SkillDistribution;
+import armameeldoparti.models.Distribution;
+import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.TeamFormat;
+import armameeldoparti.models.enums.Position;
+import armameeldoparti.utils.common.PlayersLimitsReader;
+import armameeldoparti.utils.mixers.BySkillPointsMixer;
+import armameeldoparti.utils.mixers.RandomMixer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Fairness simulation class.
+ *
+ * <p>Headless Monte Carlo simulation that distributes many {@link SyntheticRosters} with {@link RandomMixer} and {@link BySkillPointsMixer}, and
+ * writes a report with how balanced the resulting teams are and how long every distribution takes. It only uses the mixing core and the team
+ * format, so it never initializes the GUI.
+ *
+ * <p>Every scenario combines a mixer, a number of teams and a layout of anchorages, and distributes as many rosters as runs were requested, each one
+ * with new random skill points and anchorages. The runs of a scenario are spread among all the available processors, and their results are added to
+ * histograms of striped counters, so the threads never contend for them. Every run draws its random numbers from its own generator, created from
+ * the simulation seed, so a simulation can be repeated exactly (except for the durations).
+ *
+ * <p>The report has, for every scenario, the histogram of the skill points spread between the best and the worst teams, the mean and 99th
+ * percentile of the skill points spread of every position, and the percentiles of the duration of a distribution.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public final class FairnessSimulation {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final int DEFAULT_RUNS = 50_000;
+  private static final int EXIT_FAILURE = 1;
+  private static final int EXIT_SUCCESS = 0;
+  private static final int EXIT_USAGE = 2;
+  private static final int LATENCY_BUCKETS = Long.SIZE + 1;
+  private static final int MAX_WARMUP_RUNS = 1_000;
+  private static final int SPREAD_BUCKETS = 31;
+
+  private static final long DEFAULT_SEED = 1;
+
+  private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+  private static final int[] TEAMS_COUNTS = {2, 4, 8};
+
+  private static final String DEFAULT_REPORT_PATH = "simulacion.txt";
+  private static final String FLAG_RUNS = "--runs";
+  private static final String FLAG_SEED = "--seed";
+
+  private static final BySkillPointsMixer BY_SKILL_POINTS_MIXER = new BySkillPointsMixer();
+
+  private static final RandomMixer RANDOM_MIXER = new RandomMixer();
+
+  // ---------- Public constants ---------------------------------------------------------------------------------------------------------------------
+
+  public static final String FLAG = "--simulate";
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Empty, private constructor.
+   */
+  private FairnessSimulation() {
+    // Body not needed
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Simulates every scenario and writes the report.
+   *
+   * <p>Every scenario runs {@value #DEFAULT_RUNS} times unless {@code --runs} says otherwise, and the simulation seed is {@value #DEFAULT_SEED}
+   * unless {@code --seed} says otherwise. The report is written to the file given as the last argument, or to {@value #DEFAULT_REPORT_PATH} if
+   * there is none.
+   *
+   * @param args Simulation mode arguments: {@code [--runs <runs>] [--seed <seed>] [file]}.
+   *
+   * @return The exit status: 0 if the report was written, 1 if it could not be written or the team format could not be read, and 2 if the
+   *         arguments are not valid.
+   */
+  public static int run(String[] args) {
+    int runs = DEFAULT_RUNS;
+
+    long seed = DEFAULT_SEED;
+
+    String reportPath = DEFAULT_REPORT_PATH;
+
+    try {
+      for (int argIndex = 0; argIndex < args.length; argIndex++) {
+        if (args[argIndex].equals(FLAG_RUNS) && argIndex < args.length - 1) {
+          runs = Integer.parseInt(args[++argIndex]);
+        } else if (args[argIndex].equals(FLAG_SEED) && argIndex < args.length - 1) {
+          seed = Long.parseLong(args[++argIndex]);
+        } else if (argIndex == args.length - 1 && !args[argIndex].startsWith("--")) {
+          reportPath = args[argIndex];
+        } else {
+          return printUsage();
+        }
+      }
+    } catch (NumberFormatException _) {
+      return printUsage();
+    }
+
+    if (runs < 1) {
+      return printUsage();
+    }
+
+    try (BufferedWriter writer = Files.newBufferedWriter(Path.of(reportPath), StandardCharsets.UTF_8)) {
+      TeamFormat teamFormat = new TeamFormat(PlayersLimitsReader.read());
+
+      writer.write("Simulación de equipos: " + runs + " corridas por escenario, semilla " + seed + ", " + teamFormat.getPlayersPerTeam()
+                   + " jugadores por equipo");
+      writer.newLine();
+
+      int scenarioIndex = 0;
+
+      for (MixerType mixerType : MixerType.values()) {
+        for (int teamsCount : TEAMS_COUNTS) {
+          for (AnchoragesLayout anchoragesLayout : AnchoragesLayout.values()) {
+            Scenario scenario = new Scenario(mixerType, teamsCount, anchoragesLayout, teamFormat,
+                                             new SplittableRandom(seed + scenarioIndex++).nextLong());
+
+            System.err.println("Simulando: " + scenario.getDescription());
+
+            scenario.simulate(Math.min(runs, MAX_WARMUP_RUNS), null);
+
+            ScenarioStatistics statistics = new ScenarioStatistics();
+
+            scenario.simulate(runs, statistics);
+
+            writer.newLine();
+            writer.write(scenario.getDescription());
+            writer.newLine();
+            writer.write(statistics.getReport());
+            writer.flush();
+          }
+        }
+      }
+    } catch (IOException | IllegalArgumentException exception) {
+      System.err.println("No se pudo completar la simulación: " + exception.getMessage());
+
+      return EXIT_FAILURE;
+    }
+
+    System.out.println("Reporte escrito en " + reportPath);
+
+    return EXIT_SUCCESS;
+  }
+
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Prints how the simulation mode must be used.
+   *
+   * @return The exit status for invalid arguments.
+   */
+  private static int printUsage() {
+    System.err.println("Uso: " + FLAG + " [" + FLAG_RUNS + " <corridas>] [" + FLAG_SEED + " <semilla>] [archivo]");
+
+    return EXIT_USAGE;
+  }
+
+  /**
+   * @param nanos Duration to format.
+   *
+   * @return The duration in microseconds, with one decimal.
+   */
+  private static String formatMicros(long nanos) {
+    return String.format("%.1f µs", nanos / 1e3);
+  }
+
+  // ---------- Nested classes -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Mixer used by a scenario.
+   */
+  private enum MixerType {
+    RANDOM,
+    BY_SKILL_POINTS
+  }
+
+  /**
+   * Combination of a mixer, a number of teams and a layout of anchorages, along with the seed of its runs.
+   */
+  private static final class Scenario {
+
+    private int teamsCount;
+
+    private long seed;
+
+    private AnchoragesLayout anchoragesLayout;
+
+    private MixerType mixerType;
+
+    private TeamFormat teamFormat;
+
+    /**
+     * Builds a scenario.
+     *
+     * @param mixerType        Mixer to use.
+     * @param teamsCount       Number of teams of every roster.
+     * @param anchoragesLayout How the anchored players are grouped.
+     * @param teamFormat       Number of players per position of every team.
+     * @param seed             Seed of the runs of the scenario.
+     */
+    private Scenario(MixerType mixerType, int teamsCount, AnchoragesLayout anchoragesLayout, TeamFormat teamFormat, long seed) {
+      this.mixerType = mixerType;
+      this.teamsCount = teamsCount;
+      this.anchoragesLayout = anchoragesLayout;
+      this.teamFormat = teamFormat;
+      this.seed = seed;
+    }
+
+    /**
+     * Distributes as many synthetic rosters as runs, in parallel.
+     *
+     * <p>The seed of every run only depends on the scenario seed and the run index, so the results do not depend on how the runs are spread among
+     * the threads.
+     *
+     * @param runs       Number of rosters to distribute.
+     * @param statistics Where to add the results, or null to discard them (for warming up).
+     */
+    private void simulate(int runs, ScenarioStatistics statistics) {
+      IntStream.range(0, runs)
+               .parallel()
+               .forEach(runIndex -> {
+                 RandomGenerator randomGenerator = RandomMixer.createRandomGenerator(new SplittableRandom(seed + runIndex).nextLong());
+
+                 Roster roster = SyntheticRosters.create(teamFormat, teamsCount, SkillDistribution.UNIFORM, anchoragesLayout, randomGenerator);
+
+                 boolean anchorages = !roster.getAnchorages()
+                                             .isEmpty();
+
+                 long startNanos = System.nanoTime();
+
+                 Distribution distribution = switch (mixerType) {
+                   case RANDOM -> anchorages ? RANDOM_MIXER.withAnchorages(roster, randomGenerator.nextLong())
+                                             : RANDOM_MIXER.withoutAnchorages(roster, randomGenerator.nextLong());
+                   case BY_SKILL_POINTS -> anchorages ? BY_SKILL_POINTS_MIXER.withAnchorages(roster)
+                                                      : BY_SKILL_POINTS_MIXER.withoutAnchorages(roster);
+                 };
+
+                 long elapsedNanos = System.nanoTime() - startNanos;
+
+                 if (statistics != null) {
+                   statistics.record(distribution, elapsedNanos);
+                 }
+               });
+    }
+
+    /**
+     * @return A single line that identifies the scenario.
+     */
+    private String getDescription() {
+      return "Mezcla " + (mixerType == MixerType.RANDOM ? "aleatoria" : "por puntuaciones") + ", " + teamsCount + " equipos, anclajes "
+             + anchoragesLayout;
+    }
+  }
+
+  /**
+   * Results of the runs of a scenario. It can be updated by several threads at the same time.
+   */
+  private static final class ScenarioStatistics {
+
+    private LongAccumulator maxLatencyNanos;
+
+    private Histogram latency;
+    private Histogram skillSpread;
+
+    private Histogram[] positionsSkillSpreads;
+
+    /**
+     * Builds empty statistics.
+     */
+    private ScenarioStatistics() {
+      maxLatencyNanos = new LongAccumulator(Math::max, 0);
+      latency = new Histogram(LATENCY_BUCKETS);
+      skillSpread = new Histogram(SPREAD_BUCKETS);
+      positionsSkillSpreads = new Histogram[Position.values().length];
+
+      for (Position position : Position.values()) {
+        positionsSkillSpreads[position.ordinal()] = new Histogram(SPREAD_BUCKETS);
+      }
+    }
+
+    /**
+     * Adds the results of a run.
+     *
+     * <p>The durations are grouped in powers of two of nanoseconds, so every percentile is reported as the upper bound of its group.
+     *
+     * @param distribution Resulting distribution.
+     * @param elapsedNanos Duration of the distribution.
+     */
+    private void record(Distribution distribution, long elapsedNanos) {
+      skillSpread.record(distribution.getSkillSpread());
+
+      for (Position position : Position.values()) {
+        int maxSkill = Integer.MIN_VALUE;
+        int minSkill = Integer.MAX_VALUE;
+
+        for (int teamIndex = 0; teamIndex < distribution.getTeamsCount(); teamIndex++) {
+          int positionSkill = 0;
+
+          for (Player player : distribution.getTeamPlayers(teamIndex)
+                                           .get(position)) {
+            positionSkill += player.getSkillPoints();
+          }
+
+          maxSkill = Math.max(maxSkill, positionSkill);
+          minSkill = Math.min(minSkill, positionSkill);
+        }
+
+        positionsSkillSpreads[position.ordinal()].record(maxSkill - minSkill);
+      }
+
+      latency.record(Long.SIZE - Long.numberOfLeadingZeros(elapsedNanos), elapsedNanos);
+      maxLatencyNanos.accumulate(elapsedNanos);
+    }
+
+    /**
+     * @return The report of the scenario: the skill points spread histogram and percentiles, the skill points spread of every position, and the
+     *         duration percentiles.
+     */
+    private String getReport() {
+      StringBuilder report = new StringBuilder();
+
+      report.append(String.format("  Diferencia de puntos entre equipos: media %.2f", skillSpread.getMean()));
+
+      for (double percentile : PERCENTILES) {
+        report.append(String.format(", p%s %d", formatPercentile(percentile), skillSpread.getPercentileBucket(percentile)));
+      }
+
+      report.append(System.lineSeparator());
+
+      for (int bucket = 0; bucket < SPREAD_BUCKETS; bucket++) {
+        long count = skillSpread.getCount(bucket);
+
+        if (count > 0) {
+          report.append(String.format("    %3d%s %10d  %6.2f %%%n",
+                                      bucket,
+                                      bucket == SPREAD_BUCKETS - 1 ? "+" : " ",
+                                      count,
+                                      100.0 * count / skillSpread.getTotalCount()));
+        }
+      }
+
+      report.append("  Diferencia de puntos por posición (media / p99):");
+
+      for (Position position : Position.values()) {
+        Histogram positionSkillSpread = positionsSkillSpreads[position.ordinal()];
+
+        report.append(String.format("%s %c %.2f / %d",
+                                    position.ordinal() == 0 ? "" : ",",
+                                    RosterAssembler.getPositionKey(position),
+                                    positionSkillSpread.getMean(),
+                                    positionSkillSpread.getPercentileBucket(0.99)));
+      }
+
+      report.append(System.lineSeparator())
+            .append("  Duración de cada distribución: media ")
+            .append(formatMicros(Math.round(latency.getMean())));
+
+      for (double percentile : PERCENTILES) {
+        report.append(", p")
+              .append(formatPercentile(percentile))
+              .append(" < ")
+              .append(formatMicros(1L << latency.getPercentileBucket(percentile)));
+      }
+
+      return report.append(", máx ")
+                   .append(formatMicros(maxLatencyNanos.get()))
+                   .append(System.lineSeparator())
+                   .toString();
+    }
+
+    /**
+     * @param percentile Percentile as a fraction.
+     *
+     * @return The percentile as a percentage, without trailing zeros.
+     */
+    private String formatPercentile(double percentile) {
+      return String.valueOf(percentile * 100)
+                   .replaceAll("\\.?0+$", "");
+    }
+  }
+
+  /**
+   * Histogram of non-negative values, whose buckets are striped counters so it can be updated by several threads at the same time without
+   * contention. The sum of the recorded values is kept too, so their exact mean is known.
+   */
+  private static final class Histogram {
+
+    private LongAdder valuesSum;
+
+    private LongAdder[] buckets;
+
+    /**
+     * Builds an empty histogram.
+     *
+     * @param bucketsCount Number of buckets. The values that do not fit in the others are counted in the last one.
+     */
+    private Histogram(int bucketsCount) {
+      valuesSum = new LongAdder();
+      buckets = new LongAdder[bucketsCount];
+
+      for (int bucket = 0; bucket < bucketsCount; bucket++) {
+        buckets[bucket] = new LongAdder();
+      }
+    }
+
+    /**
+     * Records a value in the bucket of the same number.
+     *
+     * @param value Value to record.
+     */
+    private void record(int value) {
+      record(value, value);
+    }
+
+    /**
+     * Records a value in the given bucket.
+     *
+     * @param bucket Bucket of the value.
+     * @param value  Value to record.
+     */
+    private void record(int bucket, long value) {
+      buckets[Math.min(bucket, buckets.length - 1)].increment();
+      valuesSum.add(value);
+    }
+
+    /**
+     * @param fraction Fraction of the recorded values.
+     *
+     * @return The first bucket such that it and the previous ones hold at least the given fraction of the recorded values.
+     */
+    private int getPercentileBucket(double fraction) {
+      long target = (long) Math.ceil(fraction * getTotalCount());
+      long accumulated = 0;
+
+      for (int bucket = 0; bucket < buckets.length; bucket++) {
+        accumulated += buckets[bucket].sum();
+
+        if (accumulated >= target) {
+          return bucket;
+        }
+      }
+
+      return buckets.length - 1;
+    }
+
+    /**
+     * @return The mean of the recorded values.
+     */
+    private double getMean() {
+      long totalCount = getTotalCount();
+
+      return totalCount == 0 ? 0 : (double) valuesSum.sum() / totalCount;
+    }
+
+    /**
+     * @param bucket Bucket to check.
+     *
+     * @return The number of values recorded in the bucket.
+     */
+    private long getCount(int bucket) {
+      return buckets[bucket].sum();
+    }
+
+    /**
+     * @return The number of recorded values.
+     */
+    private long getTotalCount() {
+      long totalCount = 0;
+
+      for (LongAdder bucket : buckets) {
+        totalCount += bucket.sum();
+      }
+
+      return totalCount;
+    }
+  }
+}
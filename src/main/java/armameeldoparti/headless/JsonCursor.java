@@ -0,0 +1,302 @@
+package armameeldoparti.headless;
+
+/**
+ * JSON cursor class.
+ *
+ * <p>Minimal pull parser over a JSON text: values are read in place, as the caller walks the expected structure, without building any intermediate
+ * tree. Only the strings that the caller asks for are created.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+final class JsonCursor {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final int UNICODE_ESCAPE_LENGTH = 4;
+  private static final int UNICODE_RADIX = 16;
+
+  private static final String LITERAL_DELIMITERS = "{}[],:\" \t\r\n";
+  private static final String REGEX_NUMBER = "-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?";
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private int index;
+
+  private String text;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds a cursor at the beginning of the given text.
+   *
+   * @param text JSON text to read.
+   */
+  JsonCursor(String text) {
+    this.text = text;
+  }
+
+  // ---------- Package-private methods --------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Consumes the given structural character, skipping the whitespace before it.
+   *
+   * @param character Expected character.
+   *
+   * @throws IllegalArgumentException If the next character is a different one.
+   */
+  void expect(char character) {
+    if (!consume(character)) {
+      throw error("se esperaba '" + character + "'");
+    }
+  }
+
+  /**
+   * Consumes the given structural character if it is the next one, skipping the whitespace before it.
+   *
+   * @param character Character to consume.
+   *
+   * @return Whether the character was consumed.
+   */
+  boolean consume(char character) {
+    skipWhitespace();
+
+    if (index < text.length() && text.charAt(index) == character) {
+      index++;
+
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Consumes the separator between two members of an object or two elements of an array, if there is one.
+   *
+   * @param closing Character that closes the object or the array.
+   *
+   * @return Whether there is another member or element to read.
+   *
+   * @throws IllegalArgumentException If the next character is neither a separator nor the closing one.
+   */
+  boolean hasNext(char closing) {
+    if (consume(',')) {
+      return true;
+    }
+
+    expect(closing);
+
+    return false;
+  }
+
+  /**
+   * Checks that there is nothing but whitespace after the last value read.
+   *
+   * @throws IllegalArgumentException If there is anything else.
+   */
+  void expectEnd() {
+    skipWhitespace();
+
+    if (index != text.length()) {
+      throw error("hay datos después del final");
+    }
+  }
+
+  /**
+   * @return The next string value.
+   *
+   * @throws IllegalArgumentException If the next value is not a valid string.
+   */
+  String nextString() {
+    expect('"');
+
+    int start = index;
+
+    // Strings without escape sequences, the usual case, are taken as they are
+    while (index < text.length() && text.charAt(index) != '"' && text.charAt(index) != '\\') {
+      index++;
+    }
+
+    if (index < text.length() && text.charAt(index) == '"') {
+      return text.substring(start, index++);
+    }
+
+    StringBuilder value = new StringBuilder(text.substring(start, index));
+
+    while (index < text.length() && text.charAt(index) != '"') {
+      char character = text.charAt(index++);
+
+      if (character != '\\') {
+        value.append(character);
+
+        continue;
+      }
+
+      if (index == text.length()) {
+        break;
+      }
+
+      char escaped = text.charAt(index++);
+
+      switch (escaped) {
+        case '"', '\\', '/' -> value.append(escaped);
+        case 'b' -> value.append('\b');
+        case 'f' -> value.append('\f');
+        case 'n' -> value.append('\n');
+        case 'r' -> value.append('\r');
+        case 't' -> value.append('\t');
+        case 'u' -> {
+          if (index + UNICODE_ESCAPE_LENGTH > text.length()) {
+            throw error("secuencia de escape incompleta");
+          }
+
+          try {
+            value.append((char) Integer.parseInt(text, index, index + UNICODE_ESCAPE_LENGTH, UNICODE_RADIX));
+          } catch (NumberFormatException _) {
+            throw error("secuencia de escape inválida");
+          }
+
+          index += UNICODE_ESCAPE_LENGTH;
+        }
+        default -> throw error("secuencia de escape inválida");
+      }
+    }
+
+    if (index == text.length()) {
+      throw error("texto sin terminar");
+    }
+
+    index++;
+
+    return value.toString();
+  }
+
+  /**
+   * @return The next integer value.
+   *
+   * @throws IllegalArgumentException If the next value is not an integer.
+   */
+  int nextInt() {
+    skipWhitespace();
+
+    int start = index;
+
+    if (index < text.length() && text.charAt(index) == '-') {
+      index++;
+    }
+
+    while (index < text.length() && Character.isDigit(text.charAt(index))) {
+      index++;
+    }
+
+    try {
+      return Integer.parseInt(text, start, index, 10);
+    } catch (NumberFormatException _) {
+      throw error("se esperaba un número entero");
+    }
+  }
+
+  /**
+   * Skips the next value, whatever its type.
+   *
+   * <p>The nested objects and arrays are walked iteratively, keeping the characters that close the open ones, so any nesting depth that fits in the
+   * text can be skipped without exhausting the stack.
+   *
+   * @throws IllegalArgumentException If the next value is not valid.
+   */
+  void skipValue() {
+    StringBuilder closings = new StringBuilder();
+
+    do {
+      skipWhitespace();
+
+      if (index == text.length()) {
+        throw error("falta un valor");
+      }
+
+      switch (text.charAt(index)) {
+        case '"' -> nextString();
+        case '{' -> {
+          index++;
+
+          if (!consume('}')) {
+            closings.append('}');
+
+            nextString();
+            expect(':');
+
+            continue;
+          }
+        }
+        case '[' -> {
+          index++;
+
+          if (!consume(']')) {
+            closings.append(']');
+
+            continue;
+          }
+        }
+        default -> skipLiteral();
+      }
+
+      // After a whole value, the next member or element of the innermost open value is started, or that value is closed
+      while (!closings.isEmpty()) {
+        char closing = closings.charAt(closings.length() - 1);
+
+        if (hasNext(closing)) {
+          if (closing == '}') {
+            nextString();
+            expect(':');
+          }
+
+          break;
+        }
+
+        closings.setLength(closings.length() - 1);
+      }
+    } while (!closings.isEmpty());
+  }
+
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Skips the next true, false, null or number value.
+   *
+   * @throws IllegalArgumentException If the next value is none of them.
+   */
+  private void skipLiteral() {
+    int start = index;
+
+    while (index < text.length() && LITERAL_DELIMITERS.indexOf(text.charAt(index)) == -1) {
+      index++;
+    }
+
+    String literal = text.substring(start, index);
+
+    if (!literal.equals("true") && !literal.equals("false") && !literal.equals("null") && !literal.matches(REGEX_NUMBER)) {
+      throw error("valor inválido");
+    }
+  }
+
+  /**
+   * Skips the whitespace from the current position on.
+   */
+  private void skipWhitespace() {
+    while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+      index++;
+    }
+  }
+
+  /**
+   * @param reason What is wrong with the text.
+   *
+   * @return An exception that describes the problem and where it was found.
+   */
+  private IllegalArgumentException error(String reason) {
+    return new IllegalArgumentException("JSON inválido en la posición " + index + ": " + reason);
+  }
+}
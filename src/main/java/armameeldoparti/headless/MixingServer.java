@@ -0,0 +1,413 @@
+package armameeldoparti.headless;
+
+import armameeldoparti.models.Distribution;
+import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.enums.Position;
+import armameeldoparti.utils.common.Constants;
+import armameeldoparti.utils.common.PlayersLimitsReader;
+import armameeldoparti.utils.mixers.PlayersMixing;
+import armameeldoparti.utils.mixers.RandomMixer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Mixing server class.
+ *
+ * <p>Headless HTTP service that exposes the mixing core as JSON endpoints, built on the JDK embedded server. Every request is handled in its own
+ * virtual thread, so slow clients do not hold any platform thread, and the mixers are shared by all of them since they are stateless. It only
+ * listens on the loopback address.
+ *
+ * <p>Both {@code POST /mix/random} and {@code POST /mix/skill} receive the players as
+ * {@code {"players": [{"name": "Juan", "position": "C", "skill": 3, "anchorage": 1}, ...]}}, where the position is one of the .pda file keys. The
+ * skill points default to the initial ones and the anchorage to 0, which means that the player is not anchored. The anchorages are considered only
+ * if any player has one. Unknown members are ignored. The number of teams is the one that fits all the players.
+ *
+ * <p>The response is {@code {"teams": [{"skill": 21, "players": {"C": ["Juan"], ...}}, ...]}}, or {@code {"error": "..."}} along with a 4xx status
+ * if the request is not valid.
+ *
+ * <p>Random distributions also respond with their seed as a string, since it may not fit in a JSON client number: {@code {"seed": "-42", "teams":
+ * ...}}. Requesting {@code POST /mix/random?seed=-42} with the same players replays that distribution exactly.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public final class MixingServer {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final int DEFAULT_PORT = 8080;
+  private static final int EXIT_FAILURE = 1;
+  private static final int EXIT_SUCCESS = 0;
+  private static final int EXIT_USAGE = 2;
+  private static final int HTTP_BAD_REQUEST = 400;
+  private static final int HTTP_INTERNAL_ERROR = 500;
+  private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+  private static final int HTTP_OK = 200;
+  private static final int HTTP_PAYLOAD_TOO_LARGE = 413;
+  private static final int MAX_REQUEST_BYTES = 1 << 16;
+  private static final int RESPONSE_INITIAL_CAPACITY = 1 << 10;
+  private static final int SYSTEM_DEFAULT_BACKLOG = 0;
+
+  private static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+  private static final String METHOD_POST = "POST";
+  private static final String PATH_BY_SKILL_POINTS = "/mix/skill";
+  private static final String PATH_RANDOM = "/mix/random";
+  private static final String QUERY_PARAMETER_SEED = "seed=";
+  private static final String REGEX_PORT = "\\d{1,5}";
+
+  // ---------- Public constants ---------------------------------------------------------------------------------------------------------------------
+
+  public static final String FLAG = "--server";
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Empty, private constructor.
+   */
+  private MixingServer() {
+    // Body not needed
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Starts the server in the background. It keeps running until the program is stopped.
+   *
+   * @param args Server mode arguments: {@code [port]}.
+   *
+   * @return The exit status: 0 if the server started, 1 if it could not start, and 2 if the arguments are not valid.
+   */
+  public static int start(String[] args) {
+    if (args.length > 1 || args.length == 1 && !args[0].matches(REGEX_PORT)) {
+      System.err.println("Uso: " + FLAG + " [puerto]");
+
+      return EXIT_USAGE;
+    }
+
+    int port = args.length == 1 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+    try {
+      Map<Position, Integer> playersLimitPerPosition = PlayersLimitsReader.read();
+
+      HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), SYSTEM_DEFAULT_BACKLOG);
+
+      server.createContext(PATH_RANDOM, exchange -> handle(exchange, playersLimitPerPosition, true));
+      server.createContext(PATH_BY_SKILL_POINTS, exchange -> handle(exchange, playersLimitPerPosition, false));
+      server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+      server.start();
+
+      InetSocketAddress address = server.getAddress();
+
+      System.out.println("Escuchando en http://" + address.getHostString() + ":" + address.getPort());
+
+      return EXIT_SUCCESS;
+    } catch (IOException | IllegalArgumentException exception) {
+      System.err.println("No se pudo iniciar el servidor: " + exception.getMessage());
+
+      return EXIT_FAILURE;
+    }
+  }
+
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Mixes the roster of a request and responds with the resulting distribution, or with the reason why it could not be mixed.
+   *
+   * @param exchange                Request to handle.
+   * @param playersLimitPerPosition Number of players per position that every team must have.
+   * @param random                  Whether to distribute the players randomly instead of by their skill points.
+   *
+   * @throws IOException If the request cannot be read or the response cannot be written.
+   */
+  private static void handle(HttpExchange exchange, Map<Position, Integer> playersLimitPerPosition, boolean random) throws IOException {
+    try (exchange) {
+      if (!exchange.getRequestMethod()
+                   .equals(METHOD_POST)) {
+        exchange.getResponseHeaders()
+                .set("Allow", METHOD_POST);
+
+        respond(exchange, HTTP_METHOD_NOT_ALLOWED, appendError(new StringBuilder(), "Método no permitido"));
+
+        return;
+      }
+
+      byte[] body = exchange.getRequestBody()
+                            .readNBytes(MAX_REQUEST_BYTES + 1);
+
+      if (body.length > MAX_REQUEST_BYTES) {
+        respond(exchange, HTTP_PAYLOAD_TOO_LARGE, appendError(new StringBuilder(), "La solicitud es demasiado grande"));
+
+        return;
+      }
+
+      StringBuilder response = new StringBuilder(RESPONSE_INITIAL_CAPACITY);
+
+      try {
+        Roster roster = parseRoster(new String(body, StandardCharsets.UTF_8), playersLimitPerPosition);
+
+        if (random) {
+          long seed = parseSeed(exchange.getRequestURI()
+                                        .getRawQuery());
+
+          appendDistribution(response, PlayersMixing.randomMix(roster, seed), seed);
+        } else {
+          appendDistribution(response, PlayersMixing.bySkillPointsMix(roster)
+                                                    .getFirst(), null);
+        }
+      } catch (IllegalArgumentException exception) {
+        respond(exchange, HTTP_BAD_REQUEST, appendError(response, exception.getMessage()));
+
+        return;
+      } catch (RuntimeException _) {
+        respond(exchange, HTTP_INTERNAL_ERROR, appendError(response, "Error interno"));
+
+        return;
+      }
+
+      respond(exchange, HTTP_OK, response);
+    }
+  }
+
+  /**
+   * Builds a roster from the JSON body of a request.
+   *
+   * @param body                    JSON body of the request.
+   * @param playersLimitPerPosition Number of players per position that every team must have.
+   *
+   * @return The roster described by the body.
+   *
+   * @throws IllegalArgumentException If the body is not valid JSON, if it does not have the expected members, or if the roster is not valid.
+   *
+   * @see RosterAssembler
+   */
+  private static Roster parseRoster(String body, Map<Position, Integer> playersLimitPerPosition) {
+    JsonCursor cursor = new JsonCursor(body);
+    RosterAssembler rosterAssembler = new RosterAssembler(playersLimitPerPosition);
+
+    cursor.expect('{');
+
+    if (!cursor.consume('}')) {
+      do {
+        if (!cursor.nextString()
+                   .equals("players")) {
+          cursor.expect(':');
+          cursor.skipValue();
+
+          continue;
+        }
+
+        cursor.expect(':');
+        cursor.expect('[');
+
+        if (!cursor.consume(']')) {
+          do {
+            parsePlayer(cursor, rosterAssembler);
+          } while (cursor.hasNext(']'));
+        }
+      } while (cursor.hasNext('}'));
+    }
+
+    cursor.expectEnd();
+
+    return rosterAssembler.build();
+  }
+
+  /**
+   * @param query Raw query of the request URI, or null if there is none.
+   *
+   * @return The seed given by the query, or a new one if it has none.
+   *
+   * @throws IllegalArgumentException If the query has a seed that is not a valid number.
+   */
+  private static long parseSeed(String query) {
+    if (query != null) {
+      for (String parameter : query.split("&")) {
+        if (parameter.startsWith(QUERY_PARAMETER_SEED)) {
+          try {
+            return Long.parseLong(parameter.substring(QUERY_PARAMETER_SEED.length()));
+          } catch (NumberFormatException _) {
+            throw new IllegalArgumentException("Semilla inválida: " + parameter.substring(QUERY_PARAMETER_SEED.length()));
+          }
+        }
+      }
+    }
+
+    return RandomMixer.newSeed();
+  }
+
+  /**
+   * Reads a player object and adds the player to the roster.
+   *
+   * @param cursor          Cursor placed before the player object.
+   * @param rosterAssembler Roster where to add the player.
+   *
+   * @throws IllegalArgumentException If the player object is not valid.
+   */
+  private static void parsePlayer(JsonCursor cursor, RosterAssembler rosterAssembler) {
+    int anchorageNumber = 0;
+    int skillPoints = Constants.SKILL_INI;
+
+    String name = null;
+    String positionKey = null;
+
+    cursor.expect('{');
+
+    if (!cursor.consume('}')) {
+      do {
+        String member = cursor.nextString();
+
+        cursor.expect(':');
+
+        switch (member) {
+          case "anchorage" -> anchorageNumber = cursor.nextInt();
+          case "name" -> name = cursor.nextString();
+          case "position" -> positionKey = cursor.nextString();
+          case "skill" -> skillPoints = cursor.nextInt();
+          default -> cursor.skipValue();
+        }
+      } while (cursor.hasNext('}'));
+    }
+
+    if (name == null || positionKey == null) {
+      throw new IllegalArgumentException("Todos los jugadores deben tener nombre y posición");
+    }
+
+    rosterAssembler.addPlayer(positionKey, skillPoints, anchorageNumber, name);
+  }
+
+  /**
+   * Writes a distribution as JSON.
+   *
+   * @param json         Where to write the distribution.
+   * @param distribution Distribution to write.
+   * @param seed         Seed of the distribution, or null if it is not random.
+   */
+  private static void appendDistribution(StringBuilder json, Distribution distribution, Long seed) {
+    json.append('{');
+
+    if (seed != null) {
+      json.append("\"seed\":\"")
+          .append(seed)
+          .append("\",");
+    }
+
+    json.append("\"teams\":[");
+
+    for (int teamIndex = 0; teamIndex < distribution.getTeamsCount(); teamIndex++) {
+      json.append(teamIndex == 0 ? "" : ",")
+          .append("{\"skill\":")
+          .append(distribution.getTeamSkill(teamIndex))
+          .append(",\"players\":{");
+
+      for (Position position : Position.values()) {
+        json.append(position.ordinal() == 0 ? "\"" : ",\"")
+            .append(RosterAssembler.getPositionKey(position))
+            .append("\":[");
+
+        List<Player> players = distribution.getTeamPlayers(teamIndex)
+                                           .get(position);
+
+        for (int playerIndex = 0; playerIndex < players.size(); playerIndex++) {
+          if (playerIndex > 0) {
+            json.append(',');
+          }
+
+          appendString(json, players.get(playerIndex)
+                                    .getName());
+        }
+
+        json.append(']');
+      }
+
+      json.append("}}");
+    }
+
+    json.append("]}");
+  }
+
+  /**
+   * Writes an error message as JSON.
+   *
+   * @param json    Where to write the error.
+   * @param message Error message.
+   *
+   * @return The JSON with the error.
+   */
+  private static StringBuilder appendError(StringBuilder json, String message) {
+    json.setLength(0);
+
+    return appendString(json.append("{\"error\":"), message).append('}');
+  }
+
+  /**
+   * Writes a JSON string, escaping the characters that need it.
+   *
+   * @param json  Where to write the string.
+   * @param value String to write.
+   *
+   * @return The JSON with the string.
+   */
+  private static StringBuilder appendString(StringBuilder json, String value) {
+    json.append('"');
+
+    for (int index = 0; index < value.length(); index++) {
+      char character = value.charAt(index);
+
+      switch (character) {
+        case '"' -> json.append("\\\"");
+        case '\\' -> json.append("\\\\");
+        case '\n' -> json.append("\\n");
+        case '\r' -> json.append("\\r");
+        case '\t' -> json.append("\\t");
+        default -> {
+          if (character < ' ') {
+            json.append(String.format("\\u%04x", (int) character));
+          } else {
+            json.append(character);
+          }
+        }
+      }
+    }
+
+    return json.append('"');
+  }
+
+  /**
+   * Sends a JSON response with a known length, so the connection can be reused.
+   *
+   * @param exchange Request to respond to.
+   * @param status   HTTP status code.
+   * @param json     Response body.
+   *
+   * @throws IOException If the response cannot be written.
+   */
+  private static void respond(HttpExchange exchange, int status, StringBuilder json) throws IOException {
+    byte[] responseBody = json.toString()
+                              .getBytes(StandardCharsets.UTF_8);
+
+    exchange.getResponseHeaders()
+            .set("Content-Type", CONTENT_TYPE_JSON);
+    exchange.sendResponseHeaders(status, responseBody.length);
+
+    try (OutputStream responseStream = exchange.getResponseBody()) {
+      responseStream.write(responseBody);
+    }
+  }
+}
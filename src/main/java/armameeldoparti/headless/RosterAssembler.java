@@ -0,0 +1,145 @@
+package armameeldoparti.headless;
+
+import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.TeamFormat;
+import armameeldoparti.models.enums.Position;
+import armameeldoparti.utils.common.Constants;
+import armameeldoparti.utils.mixers.RandomMixer;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Roster assembler class.
+ *
+ * <p>Builds a roster player by player, as they are read by the headless modes. The positions are identified by the .pda file keys, and the number
+ * of teams is the one that fits all the added players.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+final class RosterAssembler {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final String POSITIONS_KEYS = "CLMFG";
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private int playersCount;
+
+  private TeamFormat teamFormat;
+
+  private Map<Integer, List<Player>> anchoragesMap;
+  private Map<Position, List<Player>> playersSets;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds an assembler for an empty roster.
+   *
+   * @param playersLimitPerPosition Number of players per position that every team must have.
+   */
+  RosterAssembler(Map<Position, Integer> playersLimitPerPosition) {
+    teamFormat = new TeamFormat(playersLimitPerPosition);
+
+    anchoragesMap = new TreeMap<>();
+    playersSets = new EnumMap<>(Position.class);
+
+    for (Position position : Position.values()) {
+      playersSets.put(position, new ArrayList<>());
+    }
+  }
+
+  // ---------- Package-private methods --------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Adds a player to the roster.
+   *
+   * @param positionKey     Key of the player position in the .pda file.
+   * @param skillPoints     Player skill points.
+   * @param anchorageNumber Number of the player anchorage, or 0 if it is not anchored.
+   * @param name            Player name.
+   *
+   * @throws IllegalArgumentException If the position key, the skill points, the anchorage number or the name are not valid.
+   */
+  void addPlayer(String positionKey, int skillPoints, int anchorageNumber, String name) {
+    if (positionKey.length() != 1 || POSITIONS_KEYS.indexOf(positionKey.charAt(0)) == -1) {
+      throw new IllegalArgumentException("Posición inválida para " + name + ": " + positionKey);
+    }
+
+    if (skillPoints < Constants.SKILL_MIN || skillPoints > Constants.SKILL_MAX) {
+      throw new IllegalArgumentException("Puntuación inválida para " + name + ": " + skillPoints);
+    }
+
+    if (anchorageNumber < 0) {
+      throw new IllegalArgumentException("Anclaje inválido para " + name + ": " + anchorageNumber);
+    }
+
+    if (name.isBlank()) {
+      throw new IllegalArgumentException("Hay un jugador sin nombre");
+    }
+
+    Player player = new Player(name, Position.values()[POSITIONS_KEYS.indexOf(positionKey.charAt(0))]);
+
+    player.setSkillPoints(skillPoints);
+
+    if (anchorageNumber != 0) {
+      player.setAnchored(true);
+      player.setAnchorageNumber(anchorageNumber);
+
+      anchoragesMap.computeIfAbsent(anchorageNumber, _ -> new ArrayList<>())
+                   .add(player);
+    }
+
+    playersSets.get(player.getPosition())
+               .add(player);
+
+    playersCount++;
+  }
+
+  /**
+   * Builds the roster with the added players, distributed among as many teams as they fill.
+   *
+   * @return The roster with the added players.
+   *
+   * @throws IllegalArgumentException If the players do not fill a whole number of teams, if there are more than {@link RandomMixer#MAX_ANCHORAGES}
+   *                                  anchorages, or if any anchorage does not have a valid number of players.
+   */
+  Roster build() {
+    int playersPerTeam = teamFormat.getPlayersPerTeam();
+
+    if (playersCount == 0 || playersCount % playersPerTeam != 0) {
+      throw new IllegalArgumentException("La cantidad de jugadores debe ser un múltiplo de " + playersPerTeam);
+    }
+
+    if (anchoragesMap.size() > RandomMixer.MAX_ANCHORAGES) {
+      throw new IllegalArgumentException("No puede haber más de " + RandomMixer.MAX_ANCHORAGES + " anclajes");
+    }
+
+    for (List<Player> anchorage : anchoragesMap.values()) {
+      if (anchorage.size() < Constants.MIN_PLAYERS_PER_ANCHORAGE || anchorage.size() > teamFormat.getMaxPlayersPerAnchorage()) {
+        throw new IllegalArgumentException("Los anclajes deben tener entre " + Constants.MIN_PLAYERS_PER_ANCHORAGE + " y "
+                                           + teamFormat.getMaxPlayersPerAnchorage() + " jugadores");
+      }
+    }
+
+    return new Roster(playersSets, teamFormat.getPlayersLimitPerPosition(), playersCount / playersPerTeam, new ArrayList<>(anchoragesMap.values()));
+  }
+
+  /**
+   * @param position Position to check.
+   *
+   * @return The key of the position in the .pda file.
+   */
+  static char getPositionKey(Position position) {
+    return POSITIONS_KEYS.charAt(position.ordinal());
+  }
+}
@@ -0,0 +1,177 @@
+package armameeldoparti.headless;
+
+import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.TeamFormat;
+import armameeldoparti.models.enums.Position;
+import armameeldoparti.utils.common.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Synthetic rosters class.
+ *
+ * <p>Generates rosters with random skill points and anchorages, so the mixers can be measured without real players. The fairness simulation and
+ * the mixers benchmarks use the same rosters, so their results can be compared.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public final class SyntheticRosters {
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Empty, private constructor.
+   */
+  private SyntheticRosters() {
+    // Body not needed
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Creates a roster with random skill points and anchors its players according to the layout.
+   *
+   * <p>The anchorages are taken from the teams of a random valid distribution, so it is always possible to distribute them.
+   *
+   * @param teamFormat        Number of players per position of every team.
+   * @param teamsCount        Number of teams to fill.
+   * @param skillDistribution How the skill points are spread among the players.
+   * @param anchoragesLayout  How the anchored players are grouped.
+   * @param randomGenerator   Random numbers generator of the roster.
+   *
+   * @return A new synthetic roster.
+   */
+  public static Roster create(TeamFormat teamFormat, int teamsCount, SkillDistribution skillDistribution, AnchoragesLayout anchoragesLayout,
+                              RandomGenerator randomGenerator) {
+    Map<Position, List<Player>> playersSets = new EnumMap<>(Position.class);
+
+    List<List<Player>> hiddenTeams = new ArrayList<>();
+
+    for (int teamIndex = 0; teamIndex < teamsCount; teamIndex++) {
+      hiddenTeams.add(new ArrayList<>());
+    }
+
+    for (Position position : Position.values()) {
+      List<Player> players = new ArrayList<>();
+
+      for (int playerIndex = 0; playerIndex < teamFormat.getPlayersLimitPerPosition()
+                                                        .get(position) * teamsCount; playerIndex++) {
+        Player player = new Player(position.name() + playerIndex, position);
+
+        player.setSkillPoints(getSkillPoints(skillDistribution, randomGenerator));
+
+        players.add(player);
+      }
+
+      playersSets.put(position, players);
+
+      List<Player> shuffledPlayers = new ArrayList<>(players);
+
+      Collections.shuffle(shuffledPlayers, randomGenerator);
+
+      for (int playerIndex = 0; playerIndex < shuffledPlayers.size(); playerIndex++) {
+        hiddenTeams.get(playerIndex % teamsCount)
+                   .add(shuffledPlayers.get(playerIndex));
+      }
+    }
+
+    List<List<Player>> anchorages = new ArrayList<>();
+
+    for (int teamIndex = 0; teamIndex < teamsCount; teamIndex++) {
+      int anchorageSize = getAnchorageSize(anchoragesLayout, teamFormat, teamIndex);
+
+      if (anchorageSize == 0) {
+        continue;
+      }
+
+      List<Player> hiddenTeam = hiddenTeams.get(teamIndex);
+
+      Collections.shuffle(hiddenTeam, randomGenerator);
+
+      List<Player> anchorage = List.copyOf(hiddenTeam.subList(0, anchorageSize));
+
+      for (Player player : anchorage) {
+        player.setAnchored(true);
+        player.setAnchorageNumber(anchorages.size() + 1);
+      }
+
+      anchorages.add(anchorage);
+    }
+
+    return new Roster(playersSets, teamFormat.getPlayersLimitPerPosition(), teamsCount, anchorages);
+  }
+
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @param skillDistribution How the skill points are spread among the players.
+   * @param randomGenerator   Random numbers generator of the roster.
+   *
+   * @return The skill points of a new player according to the skill distribution.
+   */
+  private static int getSkillPoints(SkillDistribution skillDistribution, RandomGenerator randomGenerator) {
+    return switch (skillDistribution) {
+      case UNIFORM -> randomGenerator.nextInt(Constants.SKILL_MIN, Constants.SKILL_MAX + 1);
+      case SKEWED -> Constants.SKILL_MIN + (int) ((Constants.SKILL_MAX - Constants.SKILL_MIN + 1) * Math.pow(randomGenerator.nextDouble(), 3));
+      case TIED -> Constants.SKILL_INI;
+    };
+  }
+
+  /**
+   * @param anchoragesLayout How the anchored players are grouped.
+   * @param teamFormat       Number of players per position of every team.
+   * @param teamIndex        Index of the hidden team the anchorage is taken from.
+   *
+   * @return The number of players of the anchorage taken from the given hidden team, or 0 if it has none.
+   */
+  private static int getAnchorageSize(AnchoragesLayout anchoragesLayout, TeamFormat teamFormat, int teamIndex) {
+    int maxPlayersPerAnchorage = teamFormat.getMaxPlayersPerAnchorage();
+
+    return switch (anchoragesLayout) {
+      case NONE -> 0;
+      case PAIRS -> Constants.MIN_PLAYERS_PER_ANCHORAGE;
+      case LARGE -> teamIndex % 2 == 0 ? maxPlayersPerAnchorage : 0;
+      case MIXED -> Constants.MIN_PLAYERS_PER_ANCHORAGE + teamIndex % (maxPlayersPerAnchorage - Constants.MIN_PLAYERS_PER_ANCHORAGE + 1);
+    };
+  }
+
+  // ---------- Nested classes -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * How the skill points are spread among the players.
+   *
+   * <p>{@code UNIFORM}: every skill points value is equally likely.
+   * <p>{@code SKEWED}: most players have few skill points, and a few have many.
+   * <p>{@code TIED}: every player has the initial skill points.
+   */
+  public enum SkillDistribution {
+    UNIFORM,
+    SKEWED,
+    TIED
+  }
+
+  /**
+   * How the anchored players are grouped.
+   *
+   * <p>{@code NONE}: no anchorages.
+   * <p>{@code PAIRS}: one anchorage with the minimum number of players in every team.
+   * <p>{@code LARGE}: one anchorage with the maximum number of players in every other team.
+   * <p>{@code MIXED}: one anchorage in every team, with sizes going from the minimum to the maximum number of players.
+   */
+  public enum AnchoragesLayout {
+    NONE,
+    PAIRS,
+    LARGE,
+    MIXED
+  }
+}
@@ -0,0 +1,92 @@
+package armameeldoparti.models;
+
+import armameeldoparti.models.enums.Position;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distribution class.
+ *
+ * <p>Immutable output of the mixers: the players of every team, grouped by their position, along with the skill points of every team.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public class Distribution {
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private int[] teamsSkills;
+
+  private List<Map<Position, List<Player>>> teamsPlayers;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds a distribution with copies of the players of the received teams, in the same order.
+   *
+   * @param teams Teams whose players make up the distribution.
+   */
+  public Distribution(List<Team> teams) {
+    teamsSkills = teams.stream()
+                       .mapToInt(Team::getTeamSkill)
+                       .toArray();
+
+    teamsPlayers = teams.stream()
+                        .map(team -> {
+                          Map<Position, List<Player>> teamPlayers = new EnumMap<>(Position.class);
+
+                          team.getTeamPlayers()
+                              .forEach((position, players) -> teamPlayers.put(position, List.copyOf(players)));
+
+                          return Collections.unmodifiableMap(teamPlayers);
+                        })
+                        .toList();
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @return The number of teams of the distribution.
+   */
+  public int getTeamsCount() {
+    return teamsPlayers.size();
+  }
+
+  /**
+   * @param teamIndex Index of the team, starting from 0.
+   *
+   * @return The players of the team, grouped by their position.
+   */
+  public Map<Position, List<Player>> getTeamPlayers(int teamIndex) {
+    return teamsPlayers.get(teamIndex);
+  }
+
+  /**
+   * @param teamIndex Index of the team, starting from 0.
+   *
+   * @return The skill points of the team.
+   */
+  public int getTeamSkill(int teamIndex) {
+    return teamsSkills[teamIndex];
+  }
+
+  /**
+   * @return The difference between the skill points of the best and the worst teams.
+   */
+  public int getSkillSpread() {
+    return Arrays.stream(teamsSkills)
+                 .max()
+                 .orElse(0)
+           - Arrays.stream(teamsSkills)
+                   .min()
+                   .orElse(0);
+  }
+}
@@ -19,7 +19,6 @@ public class Player {
 
   private int anchorageNumber;
   private int skillPoints;
-  private int teamNumber;
 
   private String name;
 
@@ -37,7 +36,6 @@ public class Player {
     setName(name);
     setPosition(position);
     setAnchored(false);
-    setTeamNumber(0);
     setAnchorageNumber(0);
     setSkillPoints(0);
   }
@@ -56,10 +54,6 @@ public class Player {
     return skillPoints;
   }
 
-  public int getTeamNumber() {
-    return teamNumber;
-  }
-
   public String getName() {
     return name;
   }
@@ -82,10 +76,6 @@ public class Player {
     this.skillPoints = skillPoints;
   }
 
-  public void setTeamNumber(int teamNumber) {
-    this.teamNumber = teamNumber;
-  }
-
   public void setName(String name) {
     this.name = name;
   }
@@ -0,0 +1,196 @@
+package armameeldoparti.models;
+
+import armameeldoparti.models.enums.Position;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Results table model class.
+ *
+ * <p>Backs the results table with the players of a distribution. The first row holds the teams names, the first column holds the positions names
+ * (as many rows per position as players of that position every team has, in the same order as the Position enum) and, if the teams skill points
+ * are shown, the last row holds them.
+ *
+ * <p>Every player cell keeps a reference to its player, so the table renderer can get the player of any cell in constant time.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ *
+ * @see armameeldoparti.models.enums.Position
+ */
+public class ResultsTableModel extends AbstractTableModel {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final String SKILL_ROW_NAME = "Puntuación del equipo";
+  private static final String TEAM_NAME_PREFIX = "EQUIPO ";
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private int playersRowsCount;
+  private int teamsCount;
+
+  private boolean skillShown;
+
+  private int[] teamsSkills;
+
+  private String[] rowsNames;
+  private String[] teamsNames;
+
+  private Player[][] players;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds an empty results table model.
+   *
+   * @param playersLimitPerPosition Number of players per position that every team has.
+   * @param positionsNames          Name to show for every position.
+   * @param teamsCount              Number of teams.
+   * @param skillShown              Whether the teams skill points are shown in the last row.
+   */
+  public ResultsTableModel(Map<Position, Integer> playersLimitPerPosition, Map<Position, String> positionsNames, int teamsCount,
+                           boolean skillShown) {
+    this.teamsCount = teamsCount;
+    this.skillShown = skillShown;
+
+    playersRowsCount = playersLimitPerPosition.values()
+                                              .stream()
+                                              .mapToInt(Integer::intValue)
+                                              .sum();
+    rowsNames = new String[playersRowsCount];
+    teamsNames = new String[teamsCount];
+    teamsSkills = new int[teamsCount];
+    players = new Player[playersRowsCount][teamsCount];
+
+    int row = 0;
+
+    for (Position position : Position.values()) {
+      for (int playerIndex = 0; playerIndex < playersLimitPerPosition.get(position); playerIndex++) {
+        rowsNames[row++] = positionsNames.get(position);
+      }
+    }
+
+    for (int teamIndex = 0; teamIndex < teamsCount; teamIndex++) {
+      teamsNames[teamIndex] = TEAM_NAME_PREFIX + (teamIndex + 1);
+    }
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Shows the players of the given distribution, replacing the previous ones.
+   *
+   * @param distribution Distribution to show. It must have as many teams, and as many players per position, as the table.
+   */
+  public void setDistribution(Distribution distribution) {
+    for (int teamIndex = 0; teamIndex < teamsCount; teamIndex++) {
+      int row = 0;
+
+      for (Position position : Position.values()) {
+        for (Player player : distribution.getTeamPlayers(teamIndex)
+                                         .get(position)) {
+          players[row++][teamIndex] = player;
+        }
+      }
+
+      teamsSkills[teamIndex] = distribution.getTeamSkill(teamIndex);
+    }
+
+    fireTableRowsUpdated(1, getRowCount() - 1);
+  }
+
+  /**
+   * Removes every shown player and skill points, so the table does not keep references to them.
+   */
+  public void clear() {
+    for (Player[] rowPlayers : players) {
+      Arrays.fill(rowPlayers, null);
+    }
+
+    Arrays.fill(teamsSkills, 0);
+
+    fireTableRowsUpdated(1, getRowCount() - 1);
+  }
+
+  /**
+   * @param row    Table row.
+   * @param column Table column.
+   *
+   * @return The player shown in the given cell, or {@code null} if the cell does not show a player.
+   */
+  public Player getPlayerAt(int row, int column) {
+    return isPlayerCell(row, column) ? players[row - 1][column - 1] : null;
+  }
+
+  /**
+   * @param row Table row.
+   *
+   * @return Whether the given row shows the teams skill points.
+   */
+  public boolean isSkillRow(int row) {
+    return skillShown && row == getRowCount() - 1;
+  }
+
+  @Override
+  public int getRowCount() {
+    return playersRowsCount + (skillShown ? 2 : 1);
+  }
+
+  @Override
+  public int getColumnCount() {
+    return teamsCount + 1;
+  }
+
+  @Override
+  public Object getValueAt(int row, int column) {
+    if (row == 0) {
+      return column == 0 ? null : teamsNames[column - 1];
+    }
+
+    if (isSkillRow(row)) {
+      return column == 0 ? SKILL_ROW_NAME : teamsSkills[column - 1];
+    }
+
+    if (column == 0) {
+      return rowsNames[row - 1];
+    }
+
+    Player player = players[row - 1][column - 1];
+
+    return player != null ? player.getName() : null;
+  }
+
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @param row    Table row.
+   * @param column Table column.
+   *
+   * @return Whether the given cell shows a player.
+   */
+  private boolean isPlayerCell(int row, int column) {
+    return row > 0 && column > 0 && row <= playersRowsCount;
+  }
+
+  // ---------- Setters ------------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Sets whether the teams skill points are shown in the last row, adding or removing that row if needed.
+   *
+   * @param skillShown Whether the teams skill points are shown.
+   */
+  public void setSkillShown(boolean skillShown) {
+    if (this.skillShown != skillShown) {
+      this.skillShown = skillShown;
+
+      fireTableDataChanged();
+    }
+  }
+}
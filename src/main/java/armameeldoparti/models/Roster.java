@@ -0,0 +1,161 @@
+package armameeldoparti.models;
+
+import armameeldoparti.models.enums.Position;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Roster class.
+ *
+ * <p>Immutable input of the mixers: the players to distribute grouped by their position, the anchorages to keep together, the number of players
+ * per position that every team must have and the number of teams. Since it does not depend on any shared state, any number of rosters can be mixed
+ * at the same time.
+ *
+ * <p>The players themselves are not copied, so their data must not be modified while a roster that contains them is being mixed. The mixers only
+ * read them.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public class Roster {
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private int playersCount;
+  private int teamsCount;
+
+  private List<List<Player>> anchorages;
+
+  private Map<Player, Integer> anchoragesIndexes;
+  private Map<Position, Integer> playersLimitPerPosition;
+  private Map<Position, List<Player>> playersSets;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds a roster with copies of the received collections.
+   *
+   * @param playersSets             Players to distribute, grouped by their position.
+   * @param playersLimitPerPosition Number of players per position that every team must have.
+   * @param teamsCount              Number of teams among which the players must be distributed.
+   * @param anchorages              Players that must end up in the same team, grouped by their anchorage. It may be empty.
+   *
+   * @throws IllegalArgumentException If the number of players of any position does not fill that position in every team, or if any anchored player
+   *                                  is not part of the roster or belongs to more than one anchorage.
+   */
+  public Roster(Map<Position, List<Player>> playersSets, Map<Position, Integer> playersLimitPerPosition, int teamsCount,
+                List<List<Player>> anchorages) {
+    if (teamsCount < 1) {
+      throw new IllegalArgumentException("Debe haber al menos un equipo");
+    }
+
+    Map<Position, List<Player>> playersSetsCopy = new EnumMap<>(Position.class);
+    Map<Position, Integer> playersLimitPerPositionCopy = new EnumMap<>(Position.class);
+
+    for (Position position : Position.values()) {
+      Integer playersLimit = playersLimitPerPosition.get(position);
+      List<Player> playersSet = playersSets.getOrDefault(position, List.of());
+
+      if (playersLimit == null || playersLimit < 0 || playersSet.size() != playersLimit * teamsCount) {
+        throw new IllegalArgumentException("La cantidad de jugadores de la posición " + position + " no coincide con la de los equipos");
+      }
+
+      playersSetsCopy.put(position, List.copyOf(playersSet));
+      playersLimitPerPositionCopy.put(position, playersLimit);
+      playersCount += playersSet.size();
+    }
+
+    this.teamsCount = teamsCount;
+    this.playersSets = Collections.unmodifiableMap(playersSetsCopy);
+    this.playersLimitPerPosition = Collections.unmodifiableMap(playersLimitPerPositionCopy);
+    this.anchorages = anchorages.stream()
+                                .map(List::copyOf)
+                                .toList();
+
+    anchoragesIndexes = new IdentityHashMap<>();
+
+    Set<Player> rosterPlayers = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    playersSetsCopy.values()
+                   .forEach(rosterPlayers::addAll);
+
+    for (int anchorageIndex = 0; anchorageIndex < this.anchorages.size(); anchorageIndex++) {
+      for (Player player : this.anchorages.get(anchorageIndex)) {
+        if (!rosterPlayers.contains(player) || anchoragesIndexes.put(player, anchorageIndex) != null) {
+          throw new IllegalArgumentException("El jugador anclado " + player.getName() + " no es parte del plantel o tiene más de un anclaje");
+        }
+      }
+    }
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @return New empty teams, as many as the players must be distributed among, numbered from 1.
+   */
+  public List<Team> createTeams() {
+    return IntStream.rangeClosed(1, teamsCount)
+                    .mapToObj(Team::new)
+                    .collect(Collectors.toCollection(ArrayList::new));
+  }
+
+  /**
+   * @param position Position to check.
+   *
+   * @return The number of players of the given position that every team must have.
+   */
+  public int getPlayersLimit(Position position) {
+    return playersLimitPerPosition.get(position);
+  }
+
+  /**
+   * @param player Player to check.
+   *
+   * @return Whether the player belongs to any anchorage of the roster.
+   */
+  public boolean isAnchored(Player player) {
+    return anchoragesIndexes.containsKey(player);
+  }
+
+  /**
+   * @param player Player to check.
+   *
+   * @return The index of the anchorage of the roster the player belongs to, or -1 if it is not anchored.
+   */
+  public int getAnchorageIndex(Player player) {
+    return anchoragesIndexes.getOrDefault(player, -1);
+  }
+
+  // ---------- Getters ------------------------------------------------------------------------------------------------------------------------------
+
+  public int getPlayersCount() {
+    return playersCount;
+  }
+
+  public int getTeamsCount() {
+    return teamsCount;
+  }
+
+  public List<List<Player>> getAnchorages() {
+    return anchorages;
+  }
+
+  public Map<Position, Integer> getPlayersLimitPerPosition() {
+    return playersLimitPerPosition;
+  }
+
+  public Map<Position, List<Player>> getPlayersSets() {
+    return playersSets;
+  }
+}
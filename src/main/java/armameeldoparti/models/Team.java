@@ -1,17 +1,21 @@
 package armameeldoparti.models;
 
 import armameeldoparti.models.enums.Position;
-import armameeldoparti.utils.common.CommonFields;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Team class.
  *
+ * <p>The number of players, the number of players per position and the accumulated skill points are kept up to date as the players are added or
+ * removed, so querying them never needs to traverse the team. For this reason, the players must be added and removed only through
+ * {@link #addPlayer(Player)} and {@link #removePlayer(Player)}, and never by modifying the lists from {@link #getTeamPlayers()} directly.
+ *
  * @author Bonino, Francisco Ignacio.
  *
  * @version 0.0.1
@@ -22,7 +26,11 @@ public class Team {
 
   // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
 
+  private int playersCount;
   private int teamNumber;
+  private int teamSkill;
+
+  private int[] playersCountPerPosition;
 
   private Map<Position, List<Player>> teamPlayers;
 
@@ -34,69 +42,97 @@ public class Team {
    * @param teamNumber Integer identification for the team.
    */
   public Team(int teamNumber) {
-    setTeamNumber(teamNumber);
-    setTeamPlayers(new EnumMap<>(Position.class));
+    Map<Position, List<Player>> emptyTeamPlayers = new EnumMap<>(Position.class);
 
     for (Position position : Position.values()) {
-      teamPlayers.put(position, new ArrayList<>());
+      emptyTeamPlayers.put(position, new ArrayList<>());
     }
+
+    setTeamNumber(teamNumber);
+    setTeamPlayers(emptyTeamPlayers);
   }
 
   // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
 
+  /**
+   * Adds a player to its position set in the team.
+   *
+   * <p>The player skill points are accumulated at this moment, so they should not be modified while the player belongs to the team.
+   *
+   * @param player Player to add.
+   */
+  public void addPlayer(Player player) {
+    teamPlayers.get(player.getPosition())
+               .add(player);
+
+    playersCount++;
+    playersCountPerPosition[player.getPosition()
+                                  .ordinal()]++;
+    teamSkill += player.getSkillPoints();
+  }
+
+  /**
+   * Adds every given player to the team.
+   *
+   * @param players Players to add.
+   *
+   * @see #addPlayer(Player)
+   */
+  public void addPlayers(Collection<Player> players) {
+    players.forEach(this::addPlayer);
+  }
+
+  /**
+   * Removes a player from its position set in the team.
+   *
+   * @param player Player to remove.
+   */
+  public void removePlayer(Player player) {
+    if (!teamPlayers.get(player.getPosition())
+                    .remove(player)) {
+      return;
+    }
+
+    playersCount--;
+    playersCountPerPosition[player.getPosition()
+                                  .ordinal()]--;
+    teamSkill -= player.getSkillPoints();
+  }
+
   /**
    * Clears all players sets in the team.
    */
   public void clear() {
-    teamPlayers.values()
-               .stream()
-               .flatMap(List::stream)
-               .forEach(player -> player.setTeamNumber(0));
-
     teamPlayers.values()
                .forEach(List::clear);
+
+    playersCount = 0;
+    teamSkill = 0;
+
+    Arrays.fill(playersCountPerPosition, 0);
   }
 
   /**
    * @return The number of players in the team.
    */
   public int getPlayersCount() {
-    return teamPlayers.values()
-                      .stream()
-                      .mapToInt(List::size)
-                      .sum();
+    return playersCount;
   }
 
   /**
-   * @return The number of players per position in the team.
+   * @param position The position of the set to check.
+   *
+   * @return The number of players in the specified position set of the team.
    */
-  public Map<Position, Integer> getPlayersCountPerPosition() {
-    return teamPlayers.values()
-                      .stream()
-                      .flatMap(List::stream)
-                      .collect(Collectors.toMap(Player::getPosition, _ -> 1, Integer::sum, () -> new EnumMap<>(Position.class)));
+  public int getPlayersCount(Position position) {
+    return playersCountPerPosition[position.ordinal()];
   }
 
   /**
    * @return The team skill points accumulated so far.
    */
   public int getTeamSkill() {
-    return teamPlayers.values()
-                      .stream()
-                      .flatMap(List::stream)
-                      .mapToInt(Player::getSkillPoints)
-                      .sum();
-  }
-
-  /**
-   * @param position The position of the set to check.
-   *
-   * @return Whether the specified position set in the team is full.
-   */
-  public boolean isPositionFull(Position position) {
-    return teamPlayers.get(position)
-                      .size() == CommonFields.getPlayersLimitPerPosition()
-                                             .get(position);
+    return teamSkill;
   }
 
   // ---------- Getters ------------------------------------------------------------------------------------------------------------------------------
@@ -115,7 +151,24 @@ public class Team {
     this.teamNumber = teamNumber;
   }
 
+  /**
+   * Replaces the team players and recalculates the accumulated team data from them.
+   *
+   * @param teamPlayers Players of the team, grouped by their position.
+   */
   public void setTeamPlayers(Map<Position, List<Player>> teamPlayers) {
     this.teamPlayers = teamPlayers;
+
+    playersCount = 0;
+    playersCountPerPosition = new int[Position.values().length];
+    teamSkill = 0;
+
+    teamPlayers.forEach((position, players) -> {
+      playersCount += players.size();
+      playersCountPerPosition[position.ordinal()] += players.size();
+      teamSkill += players.stream()
+                          .mapToInt(Player::getSkillPoints)
+                          .sum();
+    });
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package armameeldoparti.models;
+
+import armameeldoparti.models.enums.Position;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Team format class.
+ *
+ * <p>Immutable description of how many players every team has (e.g. 5, 7, 8 or 11-a-side), from which the limits that depend on the team size are
+ * derived. It is loaded when the program starts, so the format can be changed without rebuilding the program.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public class TeamFormat {
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private int maxPlayersPerAnchorage;
+  private int playersPerTeam;
+
+  private Map<Position, Integer> playersLimitPerPosition;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds a team format with a copy of the received players limits.
+   *
+   * <p>An anchorage can have every player of a team but one, and at most one anchorage's worth of players per team can be anchored in total, as
+   * given by {@link #getMaxAnchoredPlayers(int)}.
+   *
+   * @param playersLimitPerPosition Number of players per position that every team must have.
+   *
+   * @throws IllegalArgumentException If any position has no players.
+   */
+  public TeamFormat(Map<Position, Integer> playersLimitPerPosition) {
+    Map<Position, Integer> playersLimitPerPositionCopy = new EnumMap<>(Position.class);
+
+    for (Position position : Position.values()) {
+      Integer playersLimit = playersLimitPerPosition.get(position);
+
+      if (playersLimit == null || playersLimit < 1) {
+        throw new IllegalArgumentException("Los equipos deben tener al menos un jugador de la posición " + position);
+      }
+
+      playersLimitPerPositionCopy.put(position, playersLimit);
+      playersPerTeam += playersLimit;
+    }
+
+    this.playersLimitPerPosition = Collections.unmodifiableMap(playersLimitPerPositionCopy);
+
+    maxPlayersPerAnchorage = playersPerTeam - 1;
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @param teamsCount Number of teams to fill.
+   *
+   * @return The maximum number of anchored players in total, so every team can still get at least one player that is not anchored.
+   */
+  public int getMaxAnchoredPlayers(int teamsCount) {
+    return teamsCount * maxPlayersPerAnchorage;
+  }
+
+  // ---------- Getters ------------------------------------------------------------------------------------------------------------------------------
+
+  public int getMaxPlayersPerAnchorage() {
+    return maxPlayersPerAnchorage;
+  }
+
+  public int getPlayersPerTeam() {
+    return playersPerTeam;
+  }
+
+  public Map<Position, Integer> getPlayersLimitPerPosition() {
+    return playersLimitPerPosition;
+  }
+}
@@ -2,6 +2,7 @@ package armameeldoparti.utils.common;
 
 import armameeldoparti.controllers.Controller;
 import armameeldoparti.models.Player;
+import armameeldoparti.models.TeamFormat;
 import armameeldoparti.models.enums.Position;
 import armameeldoparti.models.enums.ProgramView;
 import armameeldoparti.views.View;
@@ -10,6 +11,7 @@ import java.awt.GraphicsDevice;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Common-use fields class.
@@ -25,15 +27,18 @@ public final class CommonFields {
   // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
 
   private static int distribution;
+  private static int teamsCount;
 
   private static boolean anchoragesEnabled;
 
   private static GraphicsDevice activeMonitor;
 
-  private static Map<Position, Integer> playersLimitPerPosition;
+  private static TeamFormat teamFormat;
+
   private static Map<Position, List<Player>> playersSets;
   private static Map<Position, String> positionsMap;
   private static Map<ProgramView, Controller<? extends View>> controllersMap;
+  private static Map<ProgramView, Supplier<Controller<? extends View>>> controllersFactoriesMap;
 
   // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
 
@@ -50,6 +55,10 @@ public final class CommonFields {
     return distribution;
   }
 
+  public static int getTeamsCount() {
+    return teamsCount;
+  }
+
   public static boolean isAnchoragesEnabled() {
     return anchoragesEnabled;
   }
@@ -58,8 +67,15 @@ public final class CommonFields {
     return activeMonitor;
   }
 
+  public static TeamFormat getTeamFormat() {
+    return teamFormat;
+  }
+
+  /**
+   * @return The number of players per position that every team of the current format must have.
+   */
   public static Map<Position, Integer> getPlayersLimitPerPosition() {
-    return playersLimitPerPosition;
+    return teamFormat.getPlayersLimitPerPosition();
   }
 
   public static Map<Position, List<Player>> getPlayersSets() {
@@ -78,12 +94,24 @@ public final class CommonFields {
     return controllersMap;
   }
 
+  /*
+   * The "java:S1452" warning is suppressed since the Java compiler can't know at runtime the type of the controlled view.
+   */
+  @SuppressWarnings("java:S1452")
+  public static Map<ProgramView, Supplier<Controller<? extends View>>> getControllersFactoriesMap() {
+    return controllersFactoriesMap;
+  }
+
   // ---------- Setters ------------------------------------------------------------------------------------------------------------------------------
 
   public static void setDistribution(int distribution) {
     CommonFields.distribution = distribution;
   }
 
+  public static void setTeamsCount(int teamsCount) {
+    CommonFields.teamsCount = teamsCount;
+  }
+
   public static void setAnchoragesEnabled(boolean anchoragesEnabled) {
     CommonFields.anchoragesEnabled = anchoragesEnabled;
   }
@@ -92,8 +120,8 @@ public final class CommonFields {
     CommonFields.activeMonitor = activeMonitor;
   }
 
-  public static void setPlayersLimitPerPosition(Map<Position, Integer> playersLimitPerPosition) {
-    CommonFields.playersLimitPerPosition = playersLimitPerPosition;
+  public static void setTeamFormat(TeamFormat teamFormat) {
+    CommonFields.teamFormat = teamFormat;
   }
 
   public static void setPlayersSets(Map<Position, List<Player>> playersSets) {
@@ -107,4 +135,8 @@ public final class CommonFields {
   public static void setControllersMap(Map<ProgramView, Controller<? extends View>> controllerMap) {
     CommonFields.controllersMap = controllerMap;
   }
+
+  public static void setControllersFactoriesMap(Map<ProgramView, Supplier<Controller<? extends View>>> controllersFactoriesMap) {
+    CommonFields.controllersFactoriesMap = controllersFactoriesMap;
+  }
 }
\ No newline at end of file
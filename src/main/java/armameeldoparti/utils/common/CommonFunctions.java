@@ -251,6 +251,9 @@ public final class CommonFunctions {
   /**
    * Gets the corresponding controller to the requested view.
    *
+   * <p>The controller and its view are created the first time they are requested, so only the views the user navigates to are built. Since that
+   * creates Swing components, this method must be called from the event dispatch thread.
+   *
    * <p>The "java:S1452" warning is suppressed since the Java compiler can't know at runtime the type of the controlled view.
    *
    * @param view The view whose controller is needed.
@@ -259,8 +262,19 @@ public final class CommonFunctions {
    */
   @SuppressWarnings("java:S1452")
   public static Controller<? extends View> getController(ProgramView view) {
-    return CommonFields.getControllersMap()
-                       .get(view);
+    Controller<? extends View> controller = CommonFields.getControllersMap()
+                                                        .get(view);
+
+    if (controller == null) {
+      controller = CommonFields.getControllersFactoriesMap()
+                               .get(view)
+                               .get();
+
+      CommonFields.getControllersMap()
+                  .put(view, controller);
+    }
+
+    return controller;
   }
 
   /**
@@ -100,14 +100,15 @@ public final class Constants {
 
   public static final int INDEX_HELP_PAGE_FILENAME = 1;
   public static final int INDEX_HELP_PAGE_TITLE = 0;
+  public static final int DEFAULT_TEAMS_COUNT = 2;
+  public static final int MIN_TEAMS_COUNT = 2;
   public static final int PLAYERS_PER_TEAM = 7;
-  public static final int PLAYERS_TOTAL = PLAYERS_PER_TEAM * 2;
   public static final int MAX_NAME_LEN = 10;
-  public static final int MAX_PLAYERS_PER_ANCHORAGE = PLAYERS_PER_TEAM - 1;
-  public static final int MAX_ANCHORED_PLAYERS = 2 * MAX_PLAYERS_PER_ANCHORAGE;
   public static final int MIN_PLAYERS_PER_ANCHORAGE = 2;
   public static final int MIX_BY_SKILL_POINTS = 1;
   public static final int MIX_RANDOM = 0;
+  public static final int PREWARM_VIEWS_DELAY = 500;
+  public static final int PROGRESS_BAR_MAX = 100; // Must be the maximum progress of a SwingWorker
   public static final int ROUNDED_BORDER_ARC_BUTTON_DIALOG = 15;
   public static final int ROUNDED_BORDER_ARC_COMBOBOX = 10;
   public static final int ROUNDED_BORDER_ARC_GENERAL = 30;
@@ -143,6 +144,7 @@ public final class Constants {
   public static final String MIG_LAYOUT_GROW = "grow";
   public static final String MIG_LAYOUT_GROWX = MIG_LAYOUT_GROW + "x";
   public static final String MIG_LAYOUT_GROWY = MIG_LAYOUT_GROW + "y";
+  public static final String MIG_LAYOUT_HIDEMODE = "hidemode 3";
   public static final String MIG_LAYOUT_ALIGN_CENTER = MIG_LAYOUT_ALIGN + " center";
   public static final String MIG_LAYOUT_ALIGN_LEFT = MIG_LAYOUT_ALIGN + " left";
   public static final String MIG_LAYOUT_ALIGN_RIGHT = MIG_LAYOUT_ALIGN + " right";
@@ -171,12 +173,17 @@ public final class Constants {
   public static final String POSITION_GOALKEEPERS = "ARQUEROS";
   public static final String POSITION_LATERAL_DEFENDERS = "DEFENSORES LATERALES";
   public static final String POSITION_MIDFIELDERS = "MEDIOCAMPISTAS";
+  public static final String PROPERTY_FORMAT = "armameeldoparti.format";
+  public static final String PROPERTY_FORMATS_DIRECTORY = "armameeldoparti.formats.dir";
+  public static final String PROPERTY_PREWARM_VIEWS = "armameeldoparti.prewarm";
+  public static final String PROPERTY_MIXING_TIME_BUDGET = "armameeldoparti.mixing.budget";
+  public static final String PROPERTY_STARTUP_REPORT = "armameeldoparti.startup.report";
+  public static final String PROPERTY_TEAMS_COUNT = "armameeldoparti.teams";
+  public static final String PROPERTY_TRAINING_RUN = "armameeldoparti.training";
   public static final String PROGRAM_TITLE = "armame el doparti"; // Must be on lowercase
   public static final String PROGRAM_VERSION = "v3.0";
   public static final String PROGRAM_AUTHOR = "@" + PROGRAM_AUTHOR_GITHUB_USERNAME;
   public static final String REGEX_NAMES_VALIDATION = "[a-z\sA-ZÁÉÍÓÚáéíóúñÑ]+";
-  public static final String REGEX_PDA_DATA_RETRIEVE = "[CLMFG].+>.+";
-  public static final String REGEX_PLAYERS_COUNT = "(?!(?<=" + PLAYERS_PER_TEAM + ")\\d).";
   public static final String TEXT_BUTTON_DIALOG_CANCEL = "Cancelar";
   public static final String TEXT_BUTTON_DIALOG_NO = "No";
   public static final String TEXT_BUTTON_DIALOG_OK = "Aceptar";
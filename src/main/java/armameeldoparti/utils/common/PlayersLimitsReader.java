@@ -0,0 +1,218 @@
+package armameeldoparti.utils.common;
+
+import armameeldoparti.models.enums.Position;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Players limits reader class.
+ *
+ * <p>Reads the number of players per position of every team from a .pda file. It only uses compile-time constants and does not depend on any
+ * graphical class, so it can be used by the headless modes without initializing the GUI.
+ *
+ * <p>Every format has its own .pda file: {@code dist.pda} for the default one and {@code dist-N.pda} for N-a-side. The lines that matter have a
+ * position key (C, L, M, F or G), one or more '>' characters and the number of players per team followed by the number of players for that
+ * position, e.g. {@code C >> 71}. Any other line is ignored.
+ *
+ * <p>The .pda files are looked up first in the directory set by the {@code armameeldoparti.formats.dir} system property, if any, so the formats can
+ * be changed without rebuilding the program. The ones bundled with the program are used otherwise.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public final class PlayersLimitsReader {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final char SEPARATOR = '>';
+
+  private static final String FILENAME_FORMAT_PDA = "dist-%d.pda";
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Empty, private constructor.
+   */
+  private PlayersLimitsReader() {
+    // Body not needed
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Gets the number of players for each position per team of the format chosen when running the program.
+   *
+   * <p>The format is chosen with the {@code armameeldoparti.format} system property, whose value is the number of players per team. If it is not
+   * set, the default format is used.
+   *
+   * @return The number of players per position that every team must have.
+   *
+   * @throws IOException If the .pda file cannot be found, read or it is not valid.
+   */
+  public static Map<Position, Integer> read() throws IOException {
+    return read(Integer.getInteger(Constants.PROPERTY_FORMAT, Constants.PLAYERS_PER_TEAM));
+  }
+
+  /**
+   * Gets the number of players for each position per team of the given format.
+   *
+   * <p>Every position must appear exactly once, with at least one player, and the numbers of players of all the positions must add up to the number
+   * of players per team.
+   *
+   * @param playersPerTeam Number of players per team of the format.
+   *
+   * @return The number of players per position that every team of the format must have.
+   *
+   * @throws IOException If the .pda file of the format cannot be found, read or it is not valid.
+   */
+  public static Map<Position, Integer> read(int playersPerTeam) throws IOException {
+    String fileName = getFileName(playersPerTeam);
+    InputStream pdaStream = getPdaStream(fileName);
+
+    if (pdaStream == null) {
+      throw new IOException("No se encontró el archivo " + fileName);
+    }
+
+    try (BufferedReader buffer = new BufferedReader(new InputStreamReader(pdaStream, StandardCharsets.UTF_8))) {
+      Map<Position, Integer> playersLimitPerPosition = new EnumMap<>(Position.class);
+      String line;
+
+      while ((line = buffer.readLine()) != null) {
+        Position position = getPosition(line);
+
+        if (position == null) {
+          continue;
+        }
+
+        int playersCount = getPlayersCount(line, playersPerTeam);
+
+        if (playersCount < 1) {
+          throw new IOException("Cantidad de jugadores inválida en " + fileName + ": " + line.strip());
+        }
+
+        if (playersLimitPerPosition.put(position, playersCount) != null) {
+          throw new IOException("Posición repetida en " + fileName + ": " + line.strip());
+        }
+      }
+
+      if (playersLimitPerPosition.size() != Position.values().length) {
+        throw new IOException("Faltan posiciones en " + fileName);
+      }
+
+      int playersCount = playersLimitPerPosition.values()
+                                                .stream()
+                                                .mapToInt(Integer::intValue)
+                                                .sum();
+
+      if (playersCount != playersPerTeam) {
+        throw new IOException("Los jugadores de " + fileName + " suman " + playersCount + " en lugar de " + playersPerTeam);
+      }
+
+      return playersLimitPerPosition;
+    }
+  }
+
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @param line A .pda file line.
+   *
+   * @return The position whose key starts the line, or {@code null} if the line does not start with a position key followed by a separator.
+   */
+  private static Position getPosition(String line) {
+    String strippedLine = line.strip();
+
+    if (strippedLine.length() < 2 || !(Character.isWhitespace(strippedLine.charAt(1)) || strippedLine.charAt(1) == SEPARATOR)) {
+      return null;
+    }
+
+    Position position = switch (strippedLine.charAt(0)) {
+      case 'C' -> Position.CENTRAL_DEFENDER;
+      case 'L' -> Position.LATERAL_DEFENDER;
+      case 'M' -> Position.MIDFIELDER;
+      case 'F' -> Position.FORWARD;
+      case 'G' -> Position.GOALKEEPER;
+      default -> null;
+    };
+
+    return position != null && strippedLine.indexOf(SEPARATOR) != -1 ? position : null;
+  }
+
+  /**
+   * Gets the number of players of a position line, which is written after the separators and the number of players per team.
+   *
+   * @param line           A .pda file line that starts with a position key.
+   * @param playersPerTeam Number of players per team, as written before the number of players of the position.
+   *
+   * @return The number of players of the line position, or -1 if it is not written as expected or exceeds the number of players per team.
+   */
+  private static int getPlayersCount(String line, int playersPerTeam) {
+    String teamSizePrefix = String.valueOf(playersPerTeam);
+    String value = line.substring(line.lastIndexOf(SEPARATOR) + 1)
+                       .strip();
+
+    if (!value.startsWith(teamSizePrefix) || value.length() == teamSizePrefix.length()) {
+      return -1;
+    }
+
+    int playersCount = 0;
+
+    for (int index = teamSizePrefix.length(); index < value.length(); index++) {
+      char digit = value.charAt(index);
+
+      if (digit < '0' || digit > '9' || playersCount > playersPerTeam) {
+        return -1;
+      }
+
+      playersCount = playersCount * 10 + digit - '0';
+    }
+
+    return playersCount <= playersPerTeam ? playersCount : -1;
+  }
+
+  /**
+   * @param fileName Name of the .pda file to open.
+   *
+   * @return A stream to read the .pda file from the formats directory if it is there, or from the bundled ones if not. It is {@code null} if the file
+   *         is in neither of them.
+   *
+   * @throws IOException If the .pda file in the formats directory cannot be opened.
+   */
+  private static InputStream getPdaStream(String fileName) throws IOException {
+    String formatsDirectory = System.getProperty(Constants.PROPERTY_FORMATS_DIRECTORY);
+
+    if (formatsDirectory != null) {
+      Path pdaPath = Path.of(formatsDirectory, fileName);
+
+      if (Files.isRegularFile(pdaPath)) {
+        return Files.newInputStream(pdaPath);
+      }
+    }
+
+    return PlayersLimitsReader.class
+                              .getClassLoader()
+                              .getResourceAsStream(Constants.PATH_DOCS + fileName);
+  }
+
+  /**
+   * @param playersPerTeam Number of players per team of the format.
+   *
+   * @return The name of the .pda file of the format.
+   */
+  private static String getFileName(int playersPerTeam) {
+    return playersPerTeam == Constants.PLAYERS_PER_TEAM ? Constants.FILENAME_PDA : String.format(FILENAME_FORMAT_PDA, playersPerTeam);
+  }
+}
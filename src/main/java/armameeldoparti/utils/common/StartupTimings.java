@@ -0,0 +1,102 @@
+package armameeldoparti.utils.common;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Startup timings class.
+ *
+ * <p>Measures the phases of the program start-up. Every phase is recorded as a JFR event, which costs nothing unless a recording is running, and its
+ * duration is kept so a report with all of them can be printed.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public final class StartupTimings {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final double NANOS_PER_MILLI = 1e6;
+
+  private static final Map<String, Long> PHASES_DURATIONS = new LinkedHashMap<>();
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Empty, private constructor.
+   */
+  private StartupTimings() {
+    // Body not needed
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Runs a start-up phase, measuring how long it takes.
+   *
+   * @param phase  Name of the phase.
+   * @param action Phase to run.
+   */
+  public static void measure(String phase, Runnable action) {
+    StartupPhaseEvent event = new StartupPhaseEvent();
+
+    event.phase = phase;
+
+    long start = System.nanoTime();
+
+    event.begin();
+    action.run();
+    event.commit();
+
+    synchronized (PHASES_DURATIONS) {
+      PHASES_DURATIONS.put(phase, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * @return The duration of every phase measured so far, in the order they were run, along with the time elapsed since the JVM started.
+   */
+  public static String getReport() {
+    StringBuilder report = new StringBuilder("Tiempos de arranque:");
+
+    synchronized (PHASES_DURATIONS) {
+      PHASES_DURATIONS.forEach((phase, duration) -> report.append(System.lineSeparator())
+                                                          .append(String.format("  %-28s %8.1f ms", phase + ":", duration / NANOS_PER_MILLI)));
+    }
+
+    ProcessHandle.current()
+                 .info()
+                 .startInstant()
+                 .ifPresent(startInstant -> report.append(System.lineSeparator())
+                                                  .append(String.format("  %-28s %8d ms", "Desde el inicio de la JVM:",
+                                                                        Duration.between(startInstant, Instant.now())
+                                                                                .toMillis())));
+
+    return report.toString();
+  }
+
+  // ---------- Nested classes -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * JFR event of a start-up phase.
+   */
+  @Category("Armame el doparti")
+  @Label("Fase de arranque")
+  @Name("armameeldoparti.StartupPhase")
+  private static final class StartupPhaseEvent extends Event {
+
+    @Label("Fase")
+    private String phase;
+  }
+}
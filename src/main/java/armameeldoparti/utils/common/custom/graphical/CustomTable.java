@@ -10,8 +10,10 @@ import java.awt.Graphics2D;
 import javax.swing.JComponent;
 import javax.swing.JTable;
 import javax.swing.SwingConstants;
+import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableModel;
 
 /**
  * A custom table that fits the overall program aesthetics.
@@ -24,6 +26,10 @@ import javax.swing.table.DefaultTableCellRenderer;
  */
 public class CustomTable extends JTable {
 
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final Border CELL_BORDER = new EmptyBorder(Constants.INSETS_GENERAL);
+
   // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
 
   /**
@@ -37,6 +43,16 @@ public class CustomTable extends JTable {
     setUpGraphicalProperties();
   }
 
+  /**
+   * Builds a table backed by the given model using the established program aesthetics.
+   *
+   * @param model Model that holds the table data.
+   */
+  public CustomTable(TableModel model) {
+    super(model);
+    setUpGraphicalProperties();
+  }
+
   // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
 
   /**
@@ -82,7 +98,7 @@ public class CustomTable extends JTable {
 
             if (component instanceof JComponent tableCellRenderer) {
               tableCellRenderer.setOpaque(false);
-              tableCellRenderer.setBorder(new EmptyBorder(Constants.INSETS_GENERAL));
+              tableCellRenderer.setBorder(CELL_BORDER);
 
               if (row == 0) {
                 tableCellRenderer.setBackground(Constants.COLOR_GREEN_DARK);
@@ -0,0 +1,633 @@
+package armameeldoparti.utils.mixers;
+
+import armameeldoparti.models.Distribution;
+import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.Team;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Anytime by-skill-points distribution class.
+ *
+ * <p>This is a mixer for the rosters that are too big for {@link OptimalBySkillPointsMixer}, where the {@link BySkillPointsMixer} heuristic
+ * result is fast but can be improved. The heuristic result is the seed of a simulated annealing search that keeps improving it until its time budget
+ * runs out, so the budget sets the trade-off between latency and quality. The search never returns a distribution worse than its seed.
+ *
+ * <p>The search state is kept in arrays indexed like the {@link PackedRoster} that the seed distribution is built from, and every move is evaluated
+ * in constant time from the skill points of the involved teams. A move either swaps two non-anchored players of the same position between two
+ * teams, or swaps an anchorage with players of another team that have the same number of players per position, which may be another anchorage or
+ * non-anchored players. This way, the position sets sizes never change and the anchored players are always moved together.
+ *
+ * <p>Every search keeps its state in its own {@link Search}, so the same mixer can be used by several threads at the same time.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public class AnytimeBySkillPointsMixer implements PlayersMixer {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final int CLOCK_CHECK_INTERVAL = 256;
+
+  private static final MixingListener SILENT_LISTENER = new MixingListener() {};
+
+  // ---------- Public constants ---------------------------------------------------------------------------------------------------------------------
+
+  public static final Duration DEFAULT_TIME_BUDGET = Duration.ofMillis(50);
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private BySkillPointsMixer seedMixer;
+
+  private Duration timeBudget;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds the anytime by-skill-points players distributor with the default time budget.
+   */
+  public AnytimeBySkillPointsMixer() {
+    this(DEFAULT_TIME_BUDGET);
+  }
+
+  /**
+   * Builds the anytime by-skill-points players distributor.
+   *
+   * @param timeBudget Maximum duration of every search, including the seed distribution.
+   *
+   * @throws IllegalArgumentException If the time budget is not positive.
+   */
+  public AnytimeBySkillPointsMixer(Duration timeBudget) {
+    if (timeBudget.isNegative() || timeBudget.isZero()) {
+      throw new IllegalArgumentException("El tiempo de búsqueda debe ser positivo");
+    }
+
+    this.timeBudget = timeBudget;
+
+    seedMixer = new BySkillPointsMixer();
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Distributes the players by their skill points without considering anchorages, improving the heuristic result within the time budget.
+   *
+   * @param roster Players to distribute, along with the players limit per position and the number of teams.
+   *
+   * @return The best distribution found.
+   */
+  @Override
+  public Distribution withoutAnchorages(Roster roster) {
+    return improveWithoutAnchorages(roster, SILENT_LISTENER).getDistribution();
+  }
+
+  /**
+   * Distributes the players by their skill points considering anchorages, improving the heuristic result within the time budget.
+   *
+   * @param roster Players to distribute, along with their anchorages, the players limit per position and the number of teams.
+   *
+   * @return The best distribution found.
+   *
+   * @throws IllegalArgumentException If the anchorages cannot be distributed.
+   */
+  @Override
+  public Distribution withAnchorages(Roster roster) {
+    return improveWithAnchorages(roster, SILENT_LISTENER).getDistribution();
+  }
+
+  /**
+   * Searches for the best distribution of the players by their skill points within the time budget, without considering anchorages.
+   *
+   * @param roster   Players to distribute, along with the players limit per position and the number of teams.
+   * @param listener Listener to notify of the search progress, which can also stop it.
+   *
+   * @return The best distribution found, along with the search statistics.
+   */
+  public ImprovedDistribution improveWithoutAnchorages(Roster roster, MixingListener listener) {
+    long startNanos = System.nanoTime();
+
+    PackedRoster packedRoster = new PackedRoster(roster);
+
+    return new Search(roster, packedRoster, seedMixer.withoutAnchorages(roster, packedRoster), false, listener, startNanos).run();
+  }
+
+  /**
+   * Searches for the best distribution of the players by their skill points within the time budget, considering anchorages.
+   *
+   * @param roster   Players to distribute, along with their anchorages, the players limit per position and the number of teams.
+   * @param listener Listener to notify of the search progress, which can also stop it.
+   *
+   * @return The best distribution found, along with the search statistics.
+   *
+   * @throws IllegalArgumentException If the anchorages cannot be distributed.
+   */
+  public ImprovedDistribution improveWithAnchorages(Roster roster, MixingListener listener) {
+    long startNanos = System.nanoTime();
+
+    PackedRoster packedRoster = new PackedRoster(roster);
+
+    return new Search(roster, packedRoster, seedMixer.withAnchorages(roster, packedRoster), true, listener, startNanos).run();
+  }
+
+  // ---------- Getters ------------------------------------------------------------------------------------------------------------------------------
+
+  public Duration getTimeBudget() {
+    return timeBudget;
+  }
+
+  // ---------- Nested classes -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Search for the best distribution of a single roster, holding all of its state.
+   *
+   * <p>The search minimizes the sum of the squared teams skill points, which only depends on the two teams involved in every move and, for a fixed
+   * total, is minimal when the teams are balanced. Worsening moves are accepted with a probability that decreases with the time left, so the search
+   * can leave the local optimum of the seed, and the distribution with the lowest skill points spread seen so far is kept apart.
+   *
+   * <p>The initial temperature is scaled to the seed skill points spread, so the search only accepts moves that unbalance the teams about as much
+   * as the seed already is, instead of wandering far from it.
+   */
+  private final class Search {
+
+    private int bestSkillSpread;
+    private int lowestSkillSpread;
+    private int playersCount;
+    private int seedSkillSpread;
+    private int teamsCount;
+
+    private long acceptedMoves;
+    private long deadlineNanos;
+    private long iterations;
+    private long startNanos;
+
+    private double initialTemperature;
+    private double temperature;
+
+    private int[] anchorageOf;
+    private int[] bestTeamOf;
+    private int[] slotOf;
+    private int[] teamOf;
+    private int[] teamsSkills;
+
+    private int[][] anchoragesMembers;
+    private int[][] anchoragesPlayersPerPosition;
+    private int[][] compatibleAnchorages;
+    private int[][] freeCountPerTeam;
+
+    private int[][][] freePlayersPerTeam;
+
+    private List<ImprovedDistribution.Improvement> improvements;
+
+    private MixingListener listener;
+
+    private PackedRoster packedRoster;
+
+    private RandomGenerator randomGenerator;
+
+    private Roster roster;
+
+    /**
+     * Builds the array representation of the seed distribution, where every player is identified by its index in the primitive snapshot.
+     *
+     * @param roster            Players to distribute.
+     * @param packedRoster      Primitive snapshot of the roster.
+     * @param seed              Distribution to start from.
+     * @param anchoragesEnabled Whether the anchored players must be moved together.
+     * @param listener          Listener to notify of the search progress.
+     * @param startNanos        Moment when the search started, including the seed distribution.
+     */
+    private Search(Roster roster, PackedRoster packedRoster, Distribution seed, boolean anchoragesEnabled, MixingListener listener,
+                   long startNanos) {
+      this.roster = roster;
+      this.packedRoster = packedRoster;
+      this.listener = listener;
+      this.startNanos = startNanos;
+
+      int positionsCount = packedRoster.getPositionsCount();
+      int anchoragesCount = anchoragesEnabled ? packedRoster.getAnchoragesCount() : 0;
+
+      deadlineNanos = startNanos + timeBudget.toNanos();
+      playersCount = packedRoster.getPlayersCount();
+      teamsCount = packedRoster.getTeamsCount();
+      randomGenerator = ThreadLocalRandom.current();
+      improvements = new ArrayList<>();
+
+      anchorageOf = new int[playersCount];
+      slotOf = new int[playersCount];
+      teamOf = new int[playersCount];
+      teamsSkills = new int[teamsCount];
+      freeCountPerTeam = new int[teamsCount][positionsCount];
+      freePlayersPerTeam = new int[teamsCount][positionsCount][];
+      anchoragesMembers = new int[anchoragesCount][];
+      anchoragesPlayersPerPosition = new int[anchoragesCount][positionsCount];
+
+      for (int teamIndex = 0; teamIndex < teamsCount; teamIndex++) {
+        for (int positionIndex = 0; positionIndex < positionsCount; positionIndex++) {
+          freePlayersPerTeam[teamIndex][positionIndex] = new int[packedRoster.getPositionEnd(positionIndex)
+                                                                 - packedRoster.getPositionStart(positionIndex)];
+        }
+
+        for (List<Player> positionPlayers : seed.getTeamPlayers(teamIndex)
+                                                .values()) {
+          for (Player player : positionPlayers) {
+            teamOf[packedRoster.getIndex(player)] = teamIndex;
+          }
+        }
+      }
+
+      int[] anchoragesSizes = new int[anchoragesCount];
+
+      int totalSkill = 0;
+
+      for (int player = 0; player < playersCount; player++) {
+        anchorageOf[player] = anchoragesEnabled ? packedRoster.getAnchorage(player) : PackedRoster.NOT_ANCHORED;
+
+        if (anchorageOf[player] == PackedRoster.NOT_ANCHORED) {
+          addFreePlayer(player, teamOf[player]);
+        } else {
+          anchoragesSizes[anchorageOf[player]]++;
+          anchoragesPlayersPerPosition[anchorageOf[player]][packedRoster.getPosition(player)]++;
+        }
+
+        teamsSkills[teamOf[player]] += packedRoster.getSkill(player);
+        totalSkill += packedRoster.getSkill(player);
+      }
+
+      for (int anchorageIndex = 0; anchorageIndex < anchoragesCount; anchorageIndex++) {
+        anchoragesMembers[anchorageIndex] = new int[anchoragesSizes[anchorageIndex]];
+        anchoragesSizes[anchorageIndex] = 0;
+      }
+
+      for (int player = 0; player < playersCount; player++) {
+        if (anchorageOf[player] != PackedRoster.NOT_ANCHORED) {
+          anchoragesMembers[anchorageOf[player]][anchoragesSizes[anchorageOf[player]]++] = player;
+        }
+      }
+
+      compatibleAnchorages = new int[anchoragesCount][];
+
+      for (int anchorageIndex = 0; anchorageIndex < anchoragesCount; anchorageIndex++) {
+        int[] composition = anchoragesPlayersPerPosition[anchorageIndex];
+
+        compatibleAnchorages[anchorageIndex] = IntStream.range(0, anchoragesCount)
+                                                        .filter(other -> Arrays.equals(anchoragesPlayersPerPosition[other], composition))
+                                                        .toArray();
+      }
+
+      lowestSkillSpread = totalSkill % teamsCount == 0 ? 0 : 1;
+      seedSkillSpread = seed.getSkillSpread();
+      bestSkillSpread = seedSkillSpread;
+      bestTeamOf = teamOf.clone();
+      initialTemperature = 2.0 * Math.max(1, seedSkillSpread * seedSkillSpread);
+      temperature = initialTemperature;
+
+      listener.bestDistributionFound(seed);
+    }
+
+    /**
+     * Applies random moves to the distribution until the time budget runs out, the listener asks the search to stop or a perfectly balanced
+     * distribution is found.
+     *
+     * @return The best distribution found, along with the search statistics.
+     */
+    private ImprovedDistribution run() {
+      boolean running = teamsCount > 1 && bestSkillSpread > lowestSkillSpread;
+
+      while (running) {
+        iterations++;
+
+        if (tryMove()) {
+          acceptedMoves++;
+
+          int skillSpread = getSkillSpread();
+
+          if (skillSpread < bestSkillSpread) {
+            recordImprovement(skillSpread);
+          }
+        }
+
+        if (iterations % CLOCK_CHECK_INTERVAL == 0) {
+          running = updateTemperature();
+        }
+
+        running &= bestSkillSpread > lowestSkillSpread;
+      }
+
+      return new ImprovedDistribution(toDistribution(bestTeamOf), seedSkillSpread, improvements, iterations, acceptedMoves,
+                                      System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Tries a random move: a swap of non-anchored players if the chosen player is not anchored, or an anchorage swap otherwise.
+     *
+     * @return Whether the move was applied.
+     */
+    private boolean tryMove() {
+      int player = randomGenerator.nextInt(playersCount);
+      int destinationTeam = randomGenerator.nextInt(teamsCount - 1);
+
+      if (destinationTeam >= teamOf[player]) {
+        destinationTeam++;
+      }
+
+      if (anchorageOf[player] == PackedRoster.NOT_ANCHORED) {
+        return tryFreePlayersSwap(player, destinationTeam);
+      }
+
+      int anchorage = anchorageOf[player];
+
+      int[] candidates = compatibleAnchorages[anchorage];
+
+      int otherAnchorage = candidates[randomGenerator.nextInt(candidates.length)];
+
+      if (otherAnchorage != anchorage && teamOf[anchoragesMembers[otherAnchorage][0]] != teamOf[player] && randomGenerator.nextBoolean()) {
+        return tryAnchoragesSwap(anchorage, otherAnchorage);
+      }
+
+      return tryAnchorageForFreePlayersSwap(anchorage, destinationTeam);
+    }
+
+    /**
+     * Tries to swap a non-anchored player with a random non-anchored player of the same position of another team.
+     *
+     * @param player          Player to swap.
+     * @param destinationTeam Team of the other player.
+     *
+     * @return Whether the swap was applied.
+     */
+    private boolean tryFreePlayersSwap(int player, int destinationTeam) {
+      int position = packedRoster.getPosition(player);
+      int sourceTeam = teamOf[player];
+
+      if (freeCountPerTeam[destinationTeam][position] == 0) {
+        return false;
+      }
+
+      int otherPlayer = freePlayersPerTeam[destinationTeam][position][randomGenerator.nextInt(freeCountPerTeam[destinationTeam][position])];
+
+      if (!accept(sourceTeam, destinationTeam, packedRoster.getSkill(player) - packedRoster.getSkill(otherPlayer))) {
+        return false;
+      }
+
+      int playerSlot = slotOf[player];
+      int otherPlayerSlot = slotOf[otherPlayer];
+
+      freePlayersPerTeam[sourceTeam][position][playerSlot] = otherPlayer;
+      freePlayersPerTeam[destinationTeam][position][otherPlayerSlot] = player;
+      slotOf[player] = otherPlayerSlot;
+      slotOf[otherPlayer] = playerSlot;
+
+      moveSkill(sourceTeam, destinationTeam, packedRoster.getSkill(player) - packedRoster.getSkill(otherPlayer));
+
+      teamOf[player] = destinationTeam;
+      teamOf[otherPlayer] = sourceTeam;
+
+      return true;
+    }
+
+    /**
+     * Tries to swap two anchorages of different teams with the same number of players per position.
+     *
+     * @param anchorage      First anchorage.
+     * @param otherAnchorage Second anchorage.
+     *
+     * @return Whether the swap was applied.
+     */
+    private boolean tryAnchoragesSwap(int anchorage, int otherAnchorage) {
+      int sourceTeam = teamOf[anchoragesMembers[anchorage][0]];
+      int destinationTeam = teamOf[anchoragesMembers[otherAnchorage][0]];
+      int movedSkill = getSkill(anchoragesMembers[anchorage]) - getSkill(anchoragesMembers[otherAnchorage]);
+
+      if (!accept(sourceTeam, destinationTeam, movedSkill)) {
+        return false;
+      }
+
+      moveSkill(sourceTeam, destinationTeam, movedSkill);
+
+      for (int member : anchoragesMembers[anchorage]) {
+        teamOf[member] = destinationTeam;
+      }
+
+      for (int member : anchoragesMembers[otherAnchorage]) {
+        teamOf[member] = sourceTeam;
+      }
+
+      return true;
+    }
+
+    /**
+     * Tries to swap an anchorage with random non-anchored players of another team, with the same number of players per position.
+     *
+     * <p>The chosen players are moved to the front of their team position sets, which does not matter since those sets are not ordered.
+     *
+     * @param anchorage       Anchorage to swap.
+     * @param destinationTeam Team of the non-anchored players.
+     *
+     * @return Whether the swap was applied.
+     */
+    private boolean tryAnchorageForFreePlayersSwap(int anchorage, int destinationTeam) {
+      int[] neededPerPosition = anchoragesPlayersPerPosition[anchorage];
+
+      int incomingSkill = 0;
+
+      for (int position = 0; position < neededPerPosition.length; position++) {
+        if (freeCountPerTeam[destinationTeam][position] < neededPerPosition[position]) {
+          return false;
+        }
+
+        for (int chosen = 0; chosen < neededPerPosition[position]; chosen++) {
+          int randomSlot = chosen + randomGenerator.nextInt(freeCountPerTeam[destinationTeam][position] - chosen);
+
+          swapSlots(destinationTeam, position, chosen, randomSlot);
+
+          incomingSkill += packedRoster.getSkill(freePlayersPerTeam[destinationTeam][position][chosen]);
+        }
+      }
+
+      int sourceTeam = teamOf[anchoragesMembers[anchorage][0]];
+      int movedSkill = getSkill(anchoragesMembers[anchorage]) - incomingSkill;
+
+      if (!accept(sourceTeam, destinationTeam, movedSkill)) {
+        return false;
+      }
+
+      moveSkill(sourceTeam, destinationTeam, movedSkill);
+
+      for (int position = 0; position < neededPerPosition.length; position++) {
+        for (int chosen = neededPerPosition[position] - 1; chosen >= 0; chosen--) {
+          int incomingPlayer = freePlayersPerTeam[destinationTeam][position][chosen];
+
+          removeFreePlayer(incomingPlayer);
+          addFreePlayer(incomingPlayer, sourceTeam);
+
+          teamOf[incomingPlayer] = sourceTeam;
+        }
+      }
+
+      for (int member : anchoragesMembers[anchorage]) {
+        teamOf[member] = destinationTeam;
+      }
+
+      return true;
+    }
+
+    /**
+     * Decides whether to apply a move, always accepting it if it does not unbalance the teams and otherwise with a probability that decreases with
+     * how much it unbalances them and with the time left.
+     *
+     * @param sourceTeam      Team that gives the skill points.
+     * @param destinationTeam Team that receives the skill points.
+     * @param movedSkill      Skill points moved from the source team to the destination team.
+     *
+     * @return Whether the move must be applied.
+     */
+    private boolean accept(int sourceTeam, int destinationTeam, int movedSkill) {
+      long costDelta = 2L * movedSkill * (teamsSkills[destinationTeam] - teamsSkills[sourceTeam] + movedSkill);
+
+      return costDelta <= 0 || (temperature > 0 && randomGenerator.nextDouble() < Math.exp(-costDelta / temperature));
+    }
+
+    /**
+     * Checks the clock, notifies the listener of the search progress and cools the search down as the deadline approaches.
+     *
+     * @return Whether the search must go on.
+     */
+    private boolean updateTemperature() {
+      long nowNanos = System.nanoTime();
+
+      double elapsedFraction = (double) (nowNanos - startNanos) / (deadlineNanos - startNanos);
+
+      listener.searchProgressed(Math.min(elapsedFraction, 1));
+
+      temperature = initialTemperature * Math.max(0, 1 - elapsedFraction);
+
+      return nowNanos < deadlineNanos && !listener.shouldStop();
+    }
+
+    /**
+     * Keeps the current distribution as the best one, and notifies the listener.
+     *
+     * @param skillSpread Skill points spread of the current distribution.
+     */
+    private void recordImprovement(int skillSpread) {
+      bestSkillSpread = skillSpread;
+
+      System.arraycopy(teamOf, 0, bestTeamOf, 0, playersCount);
+
+      improvements.add(new ImprovedDistribution.Improvement(System.nanoTime() - startNanos, skillSpread));
+
+      listener.bestDistributionFound(toDistribution(bestTeamOf));
+    }
+
+    /**
+     * Adds a non-anchored player at the end of its position set in the given team.
+     *
+     * @param player Player to add.
+     * @param team   Team where the player will be.
+     */
+    private void addFreePlayer(int player, int team) {
+      int position = packedRoster.getPosition(player);
+
+      slotOf[player] = freeCountPerTeam[team][position]++;
+      freePlayersPerTeam[team][position][slotOf[player]] = player;
+    }
+
+    /**
+     * Removes a non-anchored player from its position set in its team, moving the last player of the set to its place.
+     *
+     * @param player Player to remove.
+     */
+    private void removeFreePlayer(int player) {
+      int position = packedRoster.getPosition(player);
+      int team = teamOf[player];
+
+      swapSlots(team, position, slotOf[player], --freeCountPerTeam[team][position]);
+    }
+
+    /**
+     * Swaps two non-anchored players of the same position set of a team.
+     *
+     * @param team       Team of the players.
+     * @param position   Position of the players.
+     * @param firstSlot  Index of the first player in the position set.
+     * @param secondSlot Index of the second player in the position set.
+     */
+    private void swapSlots(int team, int position, int firstSlot, int secondSlot) {
+      int[] slots = freePlayersPerTeam[team][position];
+
+      int firstPlayer = slots[firstSlot];
+
+      slots[firstSlot] = slots[secondSlot];
+      slots[secondSlot] = firstPlayer;
+      slotOf[slots[firstSlot]] = firstSlot;
+      slotOf[slots[secondSlot]] = secondSlot;
+    }
+
+    /**
+     * @param sourceTeam      Team that gives the skill points.
+     * @param destinationTeam Team that receives the skill points.
+     * @param movedSkill      Skill points moved from the source team to the destination team.
+     */
+    private void moveSkill(int sourceTeam, int destinationTeam, int movedSkill) {
+      teamsSkills[sourceTeam] -= movedSkill;
+      teamsSkills[destinationTeam] += movedSkill;
+    }
+
+    /**
+     * @param members Players whose skill points will be added.
+     *
+     * @return The sum of the players skill points.
+     */
+    private int getSkill(int[] members) {
+      int skill = 0;
+
+      for (int member : members) {
+        skill += packedRoster.getSkill(member);
+      }
+
+      return skill;
+    }
+
+    /**
+     * @return The difference between the skill points of the best and the worst teams of the current distribution.
+     */
+    private int getSkillSpread() {
+      int maxSkill = teamsSkills[0];
+      int minSkill = teamsSkills[0];
+
+      for (int teamIndex = 1; teamIndex < teamsCount; teamIndex++) {
+        maxSkill = Math.max(maxSkill, teamsSkills[teamIndex]);
+        minSkill = Math.min(minSkill, teamsSkills[teamIndex]);
+      }
+
+      return maxSkill - minSkill;
+    }
+
+    /**
+     * @param teamOfPlayers Team of every player, indexed like the primitive snapshot.
+     *
+     * @return The distribution with every player in the given team.
+     */
+    private Distribution toDistribution(int[] teamOfPlayers) {
+      List<Team> teams = roster.createTeams();
+
+      for (int playerIndex = 0; playerIndex < playersCount; playerIndex++) {
+        teams.get(teamOfPlayers[playerIndex])
+             .addPlayer(packedRoster.getPlayer(playerIndex));
+      }
+
+      return new Distribution(teams);
+    }
+  }
+}
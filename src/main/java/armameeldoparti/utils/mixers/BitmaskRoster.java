@@ -0,0 +1,207 @@
+package armameeldoparti.utils.mixers;
+
+import armameeldoparti.models.Player;
+import armameeldoparti.models.Team;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact, bitmask-based representation of the players to distribute.
+ *
+ * <p>Every player is identified by an index from 0 to 63, so any subset of players (for example, the players of a candidate team) fits in a single
+ * {@code long} whose bit {@code i} is set if the player with index {@code i} belongs to the subset. A candidate distribution is then just one mask per
+ * team. The players of each position are precomputed as masks too, so checking the players limit per position of a candidate team is a matter of a
+ * few bit counts, and its skill points are obtained with table lookups.
+ *
+ * <p>The players keep the indexes of their {@link PackedRoster}, so they are grouped by position, in the same order as the Position enum, and the
+ * players and skill points behind the indexes are read from it. Candidate distributions are only converted back to teams with {@link #applyTo(long[], List)}
+ * once the final one is chosen.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+final class BitmaskRoster {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final int SKILL_TABLE_BITS = 8;
+  private static final int SKILL_TABLE_SIZE = 1 << SKILL_TABLE_BITS;
+  private static final int SKILL_TABLES_COUNT = Long.SIZE / SKILL_TABLE_BITS;
+
+  // ---------- Public constants ---------------------------------------------------------------------------------------------------------------------
+
+  public static final int MAX_PLAYERS = Long.SIZE;
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private long allPlayersMask;
+
+  private int[] positionLimits;
+
+  private int[][] skillTables;
+
+  private long[] positionMasks;
+
+  private PackedRoster packedRoster;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds the bitmask representation of the given players, with the same indexes as their primitive snapshot.
+   *
+   * @param packedRoster Primitive snapshot of the players to distribute.
+   *
+   * @throws IllegalArgumentException If there are more than {@link #MAX_PLAYERS} players.
+   */
+  BitmaskRoster(PackedRoster packedRoster) {
+    if (packedRoster.getPlayersCount() > MAX_PLAYERS) {
+      throw new IllegalArgumentException("No se pueden representar más de " + MAX_PLAYERS + " jugadores");
+    }
+
+    this.packedRoster = packedRoster;
+
+    positionMasks = new long[packedRoster.getPositionsCount()];
+    positionLimits = new int[packedRoster.getPositionsCount()];
+
+    for (int positionIndex = 0; positionIndex < positionMasks.length; positionIndex++) {
+      positionMasks[positionIndex] = getRangeMask(packedRoster.getPositionStart(positionIndex), packedRoster.getPositionEnd(positionIndex));
+      positionLimits[positionIndex] = packedRoster.getPositionLimit(positionIndex);
+    }
+
+    allPlayersMask = getRangeMask(0, packedRoster.getPlayersCount());
+
+    buildSkillTables();
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @param teamMask Players of a candidate team.
+   *
+   * @return The sum of the skill points of the players in the mask.
+   */
+  public int getSkill(long teamMask) {
+    int skill = 0;
+
+    for (int tableIndex = 0; tableIndex < SKILL_TABLES_COUNT; tableIndex++) {
+      skill += skillTables[tableIndex][(int) (teamMask >>> (tableIndex * SKILL_TABLE_BITS)) & (SKILL_TABLE_SIZE - 1)];
+    }
+
+    return skill;
+  }
+
+  /**
+   * @param teamMask      Players of a candidate team.
+   * @param positionIndex Ordinal of the position to check.
+   *
+   * @return The number of players of the given position still missing in the candidate team.
+   */
+  public int getMissingPlayers(long teamMask, int positionIndex) {
+    return positionLimits[positionIndex] - Long.bitCount(teamMask & positionMasks[positionIndex]);
+  }
+
+  /**
+   * @param teamMask Players of a candidate team.
+   *
+   * @return Whether the candidate team does not exceed the players limit of any position.
+   */
+  public boolean fitsPositionLimits(long teamMask) {
+    for (int positionIndex = 0; positionIndex < positionMasks.length; positionIndex++) {
+      if (Long.bitCount(teamMask & positionMasks[positionIndex]) > positionLimits[positionIndex]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @param teamMask      Players of a candidate team.
+   * @param availableMask Players that could still be added to the candidate team.
+   *
+   * @return Whether the candidate team can still reach the players limit of every position with the available players.
+   */
+  public boolean canFillPositionLimits(long teamMask, long availableMask) {
+    for (int positionIndex = 0; positionIndex < positionMasks.length; positionIndex++) {
+      if (Long.bitCount((teamMask | availableMask) & positionMasks[positionIndex]) < positionLimits[positionIndex]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @param players Players to represent.
+   *
+   * @return The mask with the bits of the given players set.
+   */
+  public long getMask(Collection<Player> players) {
+    long mask = 0;
+
+    for (Player player : players) {
+      mask |= 1L << packedRoster.getIndex(player);
+    }
+
+    return mask;
+  }
+
+  /**
+   * Converts a candidate distribution into actual teams, adding each player to the team whose mask contains it.
+   *
+   * @param teamMasks Players of each team, in the same order as the teams.
+   * @param teams     Teams where to add the players.
+   *
+   * @return The updated teams.
+   */
+  public List<Team> applyTo(long[] teamMasks, List<Team> teams) {
+    for (int teamIndex = 0; teamIndex < teamMasks.length; teamIndex++) {
+      for (long remaining = teamMasks[teamIndex]; remaining != 0; remaining &= remaining - 1) {
+        teams.get(teamIndex)
+             .addPlayer(packedRoster.getPlayer(Long.numberOfTrailingZeros(remaining)));
+      }
+    }
+
+    return teams;
+  }
+
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @param start Index of the first player of the range.
+   * @param end   Index following the last player of the range.
+   *
+   * @return The mask with the bits of the players in the range set.
+   */
+  private long getRangeMask(int start, int end) {
+    return end - start == MAX_PLAYERS ? -1L : ((1L << (end - start)) - 1) << start;
+  }
+
+  /**
+   * Builds one skill points lookup table per byte of the masks, where each entry holds the sum of the skill points of the players whose bits are set
+   * in that byte.
+   */
+  private void buildSkillTables() {
+    skillTables = new int[SKILL_TABLES_COUNT][SKILL_TABLE_SIZE];
+
+    for (int tableIndex = 0; tableIndex < SKILL_TABLES_COUNT; tableIndex++) {
+      for (int byteValue = 1; byteValue < SKILL_TABLE_SIZE; byteValue++) {
+        int lowestBit = Integer.numberOfTrailingZeros(byteValue);
+        int playerIndex = tableIndex * SKILL_TABLE_BITS + lowestBit;
+
+        skillTables[tableIndex][byteValue] = skillTables[tableIndex][byteValue & (byteValue - 1)]
+                                             + (playerIndex < packedRoster.getPlayersCount() ? packedRoster.getSkill(playerIndex) : 0);
+      }
+    }
+  }
+
+  // ---------- Getters ------------------------------------------------------------------------------------------------------------------------------
+
+  public long getAllPlayersMask() {
+    return allPlayersMask;
+  }
+}
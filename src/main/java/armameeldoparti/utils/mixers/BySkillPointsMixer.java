@@ -2,23 +2,26 @@ package armameeldoparti.utils.mixers;
 
 import static java.util.Comparator.comparingInt;
 
+import armameeldoparti.models.Distribution;
 import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
 import armameeldoparti.models.Team;
 import armameeldoparti.models.enums.Position;
-import armameeldoparti.utils.common.CommonFields;
-import armameeldoparti.utils.common.CommonFunctions;
-import armameeldoparti.utils.common.Constants;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IntSummaryStatistics;
 import java.util.List;
-import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * By-skill-points distribution class.
  *
+ * <p>This is a heuristic mixer that works with any number of teams and scales to large rosters: the players are first distributed with a balanced
+ * largest differencing method, and the result is then refined by swapping players between pairs of teams. The refinement works on a
+ * {@link PackedRoster} built once per distribution, so its inner loops only read primitive arrays.
+ *
  * @author Bonino, Francisco Ignacio.
  *
  * @version 0.0.1
@@ -41,162 +44,279 @@ public class BySkillPointsMixer implements PlayersMixer {
   /**
    * Distributes the players by their skill points without considering anchorages.
    *
-   * <p>The players of each position are ordered based on their score, from highest to lowest. The teams are then ordered based on the sum of their
-   * players scores so far, from lowest to highest.
+   * <p>The players of each position are ordered based on their score, from highest to lowest, and split in consecutive groups of as many players as
+   * teams. Each group is a partial distribution where every team has exactly one player, and its skill points spread is the difference between its
+   * best and worst teams.
    *
-   * <p>If the number of players to distribute is 2, the team with less skill points is assigned the player with the highest skill points, and the
-   * team with more skill points is assigned the player with the lowest skill points.
+   * <p>Then, the two partial distributions with the biggest spread are repeatedly combined into one, adding the teams of the second one from highest
+   * to lowest skill points to the teams of the first one from lowest to highest, so their differences cancel each other out. Since every partial
+   * distribution has the same number of players per position in each team, so does the combined one. When only one partial distribution remains, it
+   * is the resulting distribution.
    *
-   * <p>If the number of players to distribute is 4, two subgroups are made with the players at the list ends, from the outside to the inside. These
-   * subsets are then ordered based on their skill points, from highest to lowest. The team with less skill points is assigned the set of players with
-   * more skill points. The team with more skill points is assigned the set of players with the lowest skill points.
+   * <p>Finally, if the teams skill points are not the same, the distribution is improved as explained in {@link PlayerSwaps#improve()}.
    *
-   * @param teams Teams where to distribute the players.
+   * @param roster Players to distribute, along with the players limit per position and the number of teams.
    *
-   * @return The updated teams with the players distributed by their skill points, without considering anchorages.
+   * @return The players distributed by their skill points, without considering anchorages.
    */
   @Override
-  public List<Team> withoutAnchorages(List<Team> teams) {
-    Map<Position, List<Player>> playersMap = CommonFields.getPlayersSets();
+  public Distribution withoutAnchorages(Roster roster) {
+    return withoutAnchorages(roster, new PackedRoster(roster));
+  }
+
+  /**
+   * Distributes the players by their skill points considering anchorages.
+   *
+   * <p>First, the anchored players are grouped in different lists by their anchorage number, and they are distributed starting with the sets with
+   * most anchored players. Each set is added to the team with the least skill points where it fits, as long as the following sets can still be
+   * distributed. If not, the next team is tried.
+   *
+   * <p>Then, the players that are not anchored are distributed from highest to lowest skill points, each one to the team with the least skill points
+   * whose position set is not full yet.
+   *
+   * <p>Finally, if the teams skill points are not the same, the distribution is improved as explained in {@link PlayerSwaps#improve()}.
+   *
+   * @param roster Players to distribute, along with their anchorages, the players limit per position and the number of teams.
+   *
+   * @return The players distributed by their skill points, considering anchorages.
+   */
+  @Override
+  public Distribution withAnchorages(Roster roster) {
+    return withAnchorages(roster, new PackedRoster(roster));
+  }
+
+  // ---------- Package-private methods --------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Distributes the players by their skill points without considering anchorages, as explained in {@link #withoutAnchorages(Roster)}.
+   *
+   * @param roster       Players to distribute, along with the players limit per position and the number of teams.
+   * @param packedRoster Primitive snapshot of the roster, so a mixer that already has one does not build it again.
+   *
+   * @return The players distributed by their skill points, without considering anchorages.
+   */
+  Distribution withoutAnchorages(Roster roster, PackedRoster packedRoster) {
+    List<Team> teams = roster.createTeams();
+
+    PriorityQueue<List<Team>> partialDistributions = new PriorityQueue<>(comparingInt(this::getSkillSpread).reversed());
 
     for (Position position : Position.values()) {
-      List<Player> playersSet = new ArrayList<>(playersMap.get(position));
+      List<Player> playersSet = new ArrayList<>(roster.getPlayersSets()
+                                                      .get(position));
 
       playersSet.sort(comparingInt(Player::getSkillPoints).reversed()); // Players sorted highest to lowest
 
-      teams.sort(comparingInt(Team::getTeamSkill)); // Teams sorted lowest to highest
+      for (int firstPlayerIndex = 0; firstPlayerIndex < playersSet.size(); firstPlayerIndex += teams.size()) {
+        List<Team> partialDistribution = createTemporaryTeams(teams.size());
 
-      if (playersSet.size() == 2) {
         for (int teamIndex = 0; teamIndex < teams.size(); teamIndex++) {
-          teams.get(teamIndex)
-               .getTeamPlayers()
-               .get(position)
-               .add(playersSet.get(teamIndex));
+          partialDistribution.get(teamIndex)
+                             .addPlayer(playersSet.get(firstPlayerIndex + teamIndex));
         }
-      } else {
-        distributeSubsets(teams, playersSet, position);
+
+        partialDistributions.add(partialDistribution);
+      }
+    }
+
+    while (partialDistributions.size() > 1) {
+      partialDistributions.add(combinePartialDistributions(partialDistributions.poll(), partialDistributions.poll()));
+    }
+
+    List<Team> distribution = partialDistributions.poll();
+
+    if (distribution != null) {
+      for (int teamIndex = 0; teamIndex < teams.size(); teamIndex++) {
+        teams.get(teamIndex)
+             .addPlayers(getPlayers(distribution.get(teamIndex)));
       }
     }
 
     if (!teamsSkillPointsAreEqual(teams)) {
-      checkPlayerSwaps(teams);
+      new PlayerSwaps(packedRoster, teams, false).improve();
     }
 
-    return teams;
+    return new Distribution(teams);
   }
 
   /**
-   * Distributes the players by their skill points considering anchorages.
-   *
-   * <p>First, the anchored players are grouped in different lists by their anchorage number, and they are distributed as fair as possible starting
-   * with the sets with most anchored players in order to avoid inconsistencies.
+   * Distributes the players by their skill points considering anchorages, as explained in {@link #withAnchorages(Roster)}.
    *
-   * <p>Then, the players that are not anchored are distributed between the teams as fair as possible based on their skill points. They will be added
-   * to a team only if the players per position or the players per team limits are not exceeded.
+   * @param roster       Players to distribute, along with their anchorages, the players limit per position and the number of teams.
+   * @param packedRoster Primitive snapshot of the roster, so a mixer that already has one does not build it again.
    *
-   * @param teams Teams where to distribute the players.
+   * @return The players distributed by their skill points, considering anchorages.
    *
-   * @return The updated teams with the players distributed by their skill points, without considering anchorages.
+   * @throws IllegalArgumentException If the anchorages cannot be distributed.
    */
-  @Override
-  public List<Team> withAnchorages(List<Team> teams) {
-    for (List<Player> anchorage : CommonFunctions.getAnchorages()) {
-      teams.sort(comparingInt(Team::getTeamSkill));
+  Distribution withAnchorages(Roster roster, PackedRoster packedRoster) {
+    List<Team> teams = roster.createTeams();
 
-      for (Player player : anchorage) {
-        player.setTeamNumber(teams.get(0)
-                                  .getTeamNumber());
+    List<List<Player>> anchorages = new ArrayList<>(roster.getAnchorages());
 
-        teams.get(0)
-             .getTeamPlayers()
-             .get(player.getPosition())
-             .add(player);
-      }
+    anchorages.sort(comparingInt(List<Player>::size).reversed());
+
+    if (!distributeAnchorages(teams, anchorages, roster, 0)) {
+      throw new IllegalArgumentException("Los anclajes no se pueden distribuir entre los equipos");
     }
 
-    List<List<Player>> remainingPlayers = new ArrayList<>(CommonFields.getPlayersSets()
-                                                                      .values()
-                                                                      .stream()
-                                                                      .flatMap(List::stream)
-                                                                      .filter(player -> player.getTeamNumber() == 0)
-                                                                      .collect(Collectors.groupingBy(Player::getPosition))
-                                                                      .values());
+    roster.getPlayersSets()
+          .values()
+          .stream()
+          .flatMap(List::stream)
+          .filter(player -> !roster.isAnchored(player))
+          .sorted(comparingInt(Player::getSkillPoints).reversed())
+          .forEach(player -> teams.stream()
+                                  .filter(team -> team.getPlayersCount(player.getPosition()) < roster.getPlayersLimit(player.getPosition()))
+                                  .min(comparingInt(Team::getTeamSkill))
+                                  .orElseThrow()
+                                  .addPlayer(player));
 
-    remainingPlayers.sort(comparingInt(List::size));
+    if (!teamsSkillPointsAreEqual(teams)) {
+      new PlayerSwaps(packedRoster, teams, true).improve();
+    }
 
-    for (List<Player> players : remainingPlayers) {
-      players.sort(comparingInt(Player::getSkillPoints).reversed());
+    return new Distribution(teams);
+  }
 
-      if (players.size() == 4) {
-        teams.sort(comparingInt(Team::getTeamSkill));
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
 
-        distributeSubsets(teams, players, players.get(0)
-                                                 .getPosition());
-      } else {
-        for (Player player : players) {
-          teams.sort(comparingInt(Team::getTeamSkill));
+  /**
+   * Combines two partial distributions into one, adding the teams of the second one from highest to lowest skill points to the teams of the first
+   * one from lowest to highest.
+   *
+   * @param first  First partial distribution. It is updated with the players of the second one.
+   * @param second Second partial distribution.
+   *
+   * @return The combined partial distribution.
+   */
+  private List<Team> combinePartialDistributions(List<Team> first, List<Team> second) {
+    first.sort(comparingInt(Team::getTeamSkill));
+    second.sort(comparingInt(Team::getTeamSkill).reversed());
+
+    for (int teamIndex = 0; teamIndex < first.size(); teamIndex++) {
+      first.get(teamIndex)
+           .addPlayers(getPlayers(second.get(teamIndex)));
+    }
 
-          int teamNumber = 0;
+    return first;
+  }
 
-          if (teams.get(teamNumber)
-                   .isPositionFull(player.getPosition())
-              || teams.get(teamNumber)
-                      .getPlayersCount() + 1 > Constants.PLAYERS_PER_TEAM) {
-            teamNumber = 1;
-          }
+  /**
+   * Recursively distributes the anchorages, starting from the specified one, trying the teams from lowest to highest skill points.
+   *
+   * <p>Since empty teams are interchangeable, an anchorage is only tried in the first empty team.
+   *
+   * @param teams          Teams where to distribute the anchorages.
+   * @param anchorages     Anchored players grouped by their anchorage.
+   * @param roster         Roster the anchorages belong to.
+   * @param anchorageIndex Index of the anchorage to distribute.
+   *
+   * @return Whether the anchorages could be distributed.
+   */
+  private boolean distributeAnchorages(List<Team> teams, List<List<Player>> anchorages, Roster roster, int anchorageIndex) {
+    if (anchorageIndex == anchorages.size()) {
+      return true;
+    }
 
-          player.setTeamNumber(teamNumber + 1);
+    List<Player> anchorage = anchorages.get(anchorageIndex);
 
-          teams.get(teamNumber)
-               .getTeamPlayers()
-               .get(player.getPosition())
-               .add(player);
+    List<Team> candidateTeams = new ArrayList<>(teams);
+
+    candidateTeams.sort(comparingInt(Team::getTeamSkill));
+
+    boolean emptyTeamTried = false;
+
+    for (Team team : candidateTeams) {
+      if (team.getPlayersCount() == 0) {
+        if (emptyTeamTried) {
+          continue;
         }
+
+        emptyTeamTried = true;
+      }
+
+      if (anchorageFits(team, anchorage, roster)) {
+        team.addPlayers(anchorage);
+
+        if (distributeAnchorages(teams, anchorages, roster, anchorageIndex + 1)) {
+          return true;
+        }
+
+        anchorage.forEach(team::removePlayer);
       }
     }
 
-    return teams;
+    return false;
   }
 
-  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+  /**
+   * @param players Players to count.
+   *
+   * @return The number of players per position, indexed by the position ordinal.
+   */
+  private int[] getPlayersCountPerPosition(List<Player> players) {
+    int[] playersCountPerPosition = new int[Position.values().length];
+
+    players.forEach(player -> playersCountPerPosition[player.getPosition()
+                                                            .ordinal()]++);
+
+    return playersCountPerPosition;
+  }
 
   /**
-   * Performs the subsets distribution in sets with 4+ players as explained in {@link #withoutAnchorages(List)}.
+   * @param team      Team to check.
+   * @param anchorage Anchored players to add.
+   * @param roster    Roster the players belong to.
    *
-   * @param teams      Teams where to distribute the players.
-   * @param playersSet Current working players set.
-   * @param position   Current working players position.
+   * @return Whether the anchorage can be added to the team without exceeding the players limit of any position.
    */
-  private void distributeSubsets(List<Team> teams, List<Player> playersSet, Position position) {
-    List<List<Player>> playersSubsets = new ArrayList<>();
+  private boolean anchorageFits(Team team, List<Player> anchorage, Roster roster) {
+    int[] anchorageCountPerPosition = getPlayersCountPerPosition(anchorage);
 
-    for (int playerIndex = 0; playerIndex < playersSet.size() / 2; playerIndex++) {
-      playersSubsets.add(Arrays.asList(playersSet.get(playerIndex), playersSet.get(playersSet.size() - 1 - playerIndex)));
-    }
+    return Arrays.stream(Position.values())
+                 .allMatch(position -> team.getPlayersCount(position) + anchorageCountPerPosition[position.ordinal()]
+                                       <= roster.getPlayersLimit(position));
+  }
 
-    // Subsets sorted lowest to highest
-    playersSubsets.sort(comparingInt(playersSubset -> playersSubset.stream()
-                                                                   .mapToInt(Player::getSkillPoints)
-                                                                   .reduce(0, Math::addExact)));
+  /**
+   * @param teamsCount Number of teams to create.
+   *
+   * @return New empty teams, used to build partial distributions.
+   */
+  private List<Team> createTemporaryTeams(int teamsCount) {
+    List<Team> temporaryTeams = new ArrayList<>();
 
-    IntStream.range(0, teams.size())
-             .forEach(
-               teamIndex -> {
-                 playersSubsets.get(teamIndex)
-                               .forEach(player -> player.setTeamNumber(teamIndex + 1));
+    for (int teamIndex = 0; teamIndex < teamsCount; teamIndex++) {
+      temporaryTeams.add(new Team(0));
+    }
 
-                 teams.get(teamIndex)
-                      .getTeamPlayers()
-                      .get(position)
-                      .addAll(playersSubsets.get(1 - teamIndex));
-             });
+    return temporaryTeams;
   }
 
   /**
-   * @param teams
+   * @param team Team whose players will be retrieved.
+   *
+   * @return Every player of the team.
    */
-  private void checkPlayerSwaps(List<Team> teams) {
-    // TODO
+  private List<Player> getPlayers(Team team) {
+    return team.getTeamPlayers()
+               .values()
+               .stream()
+               .flatMap(List::stream)
+               .toList();
+  }
+
+  /**
+   * @param teams Teams of a partial distribution.
+   *
+   * @return The difference between the skill points of the best and the worst teams.
+   */
+  private int getSkillSpread(List<Team> teams) {
+    IntSummaryStatistics teamsSkillStatistics = teams.stream()
+                                                     .mapToInt(Team::getTeamSkill)
+                                                     .summaryStatistics();
+
+    return teamsSkillStatistics.getMax() - teamsSkillStatistics.getMin();
   }
 
   /**
@@ -213,4 +333,489 @@ public class BySkillPointsMixer implements PlayersMixer {
                 .collect(Collectors.toSet())
                 .size() == 1;
   }
-}
\ No newline at end of file
+
+  // ---------- Nested classes -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Improvement of a distribution by swapping players between pairs of teams, over the primitive snapshot of its roster.
+   *
+   * <p>Every team keeps the indexes of its players grouped by position, in the same order as the team does, and the skill points, composition and
+   * players of every anchorage are known beforehand, so evaluating the swaps never allocates nor looks anything up in a map. The teams are only
+   * updated once no swap improves the distribution anymore.
+   */
+  private static final class PlayerSwaps {
+
+    private int bestIncomingCount;
+    private int bestOutgoingCount;
+    private int candidatesCount;
+    private int closestGap;
+    private int closestPlayersCount;
+    private int playersPerTeam;
+
+    private int[] anchorageOf;
+    private int[] anchoragesFirstMembers;
+    private int[] anchoragesSizes;
+    private int[] anchoragesSkills;
+    private int[] bestIncoming;
+    private int[] bestOutgoing;
+    private int[] candidates;
+    private int[] chosen;
+    private int[] closestPlayers;
+    private int[] neededPerPosition;
+    private int[] playerComposition;
+    private int[] positionSlotsStarts;
+    private int[] team1Anchorages;
+    private int[] team1FreePlayers;
+    private int[] team2Anchorages;
+    private int[] team2FreePlayers;
+    private int[] teamOf;
+    private int[] teamsSkills;
+
+    private int[][] anchoragesPlayersPerPosition;
+    private int[][] teamsPlayers;
+    private int[][] teamsPlayersCountPerPosition;
+
+    private List<Team> teams;
+
+    private PackedRoster packedRoster;
+
+    /**
+     * Builds the array representation of the given teams.
+     *
+     * @param packedRoster      Primitive snapshot of the roster the players belong to.
+     * @param teams             Teams whose players may be swapped. They must be complete.
+     * @param anchoragesEnabled Whether the anchored players must be moved together.
+     */
+    private PlayerSwaps(PackedRoster packedRoster, List<Team> teams, boolean anchoragesEnabled) {
+      this.packedRoster = packedRoster;
+      this.teams = teams;
+
+      int positionsCount = packedRoster.getPositionsCount();
+      int playersCount = packedRoster.getPlayersCount();
+      int anchoragesCount = anchoragesEnabled ? packedRoster.getAnchoragesCount() : 0;
+
+      positionSlotsStarts = new int[positionsCount + 1];
+
+      for (int positionIndex = 0; positionIndex < positionsCount; positionIndex++) {
+        positionSlotsStarts[positionIndex + 1] = positionSlotsStarts[positionIndex] + packedRoster.getPositionLimit(positionIndex);
+      }
+
+      playersPerTeam = positionSlotsStarts[positionsCount];
+      teamOf = new int[playersCount];
+      teamsSkills = new int[teams.size()];
+      teamsPlayers = new int[teams.size()][playersPerTeam];
+      teamsPlayersCountPerPosition = new int[teams.size()][positionsCount];
+
+      for (int teamIndex = 0; teamIndex < teams.size(); teamIndex++) {
+        for (Position position : Position.values()) {
+          for (Player player : teams.get(teamIndex)
+                                    .getTeamPlayers()
+                                    .get(position)) {
+            addToTeam(packedRoster.getIndex(player), teamIndex);
+          }
+        }
+      }
+
+      anchorageOf = new int[playersCount];
+      anchoragesFirstMembers = new int[anchoragesCount];
+      anchoragesSizes = new int[anchoragesCount];
+      anchoragesSkills = new int[anchoragesCount];
+      anchoragesPlayersPerPosition = new int[anchoragesCount][positionsCount];
+
+      for (int player = 0; player < playersCount; player++) {
+        int anchorage = anchoragesEnabled ? packedRoster.getAnchorage(player) : PackedRoster.NOT_ANCHORED;
+
+        anchorageOf[player] = anchorage;
+
+        if (anchorage != PackedRoster.NOT_ANCHORED) {
+          if (anchoragesSizes[anchorage]++ == 0) {
+            anchoragesFirstMembers[anchorage] = player;
+          }
+
+          anchoragesSkills[anchorage] += packedRoster.getSkill(player);
+          anchoragesPlayersPerPosition[anchorage][packedRoster.getPosition(player)]++;
+        }
+      }
+
+      // An anchorage of a single player is moved like any other single player
+      for (int player = 0; player < playersCount; player++) {
+        if (anchorageOf[player] != PackedRoster.NOT_ANCHORED && anchoragesSizes[anchorageOf[player]] == 1) {
+          anchorageOf[player] = PackedRoster.NOT_ANCHORED;
+        }
+      }
+
+      bestIncoming = new int[playersPerTeam];
+      bestOutgoing = new int[playersPerTeam];
+      candidates = new int[playersPerTeam];
+      chosen = new int[playersPerTeam];
+      closestPlayers = new int[playersPerTeam];
+      team1FreePlayers = new int[playersPerTeam];
+      team2FreePlayers = new int[playersPerTeam];
+      team1Anchorages = new int[anchoragesCount];
+      team2Anchorages = new int[anchoragesCount];
+      neededPerPosition = new int[positionsCount];
+      playerComposition = new int[positionsCount];
+    }
+
+    /**
+     * Improves the distribution by swapping players between every pair of teams while any of them can reduce its skill points difference, and then
+     * updates the teams with the result.
+     *
+     * <p>Every swap between two teams reduces their difference while keeping their total, so the sum of the squared skill points of the teams
+     * always decreases and the process always ends. With two teams, this is the same as improving their difference until no swap helps.
+     *
+     * @see #improveTeamsPair(int, int)
+     */
+    private void improve() {
+      boolean improved = true;
+
+      while (improved) {
+        improved = false;
+
+        for (int firstTeamIndex = 0; firstTeamIndex < teams.size() - 1; firstTeamIndex++) {
+          for (int secondTeamIndex = firstTeamIndex + 1; secondTeamIndex < teams.size(); secondTeamIndex++) {
+            improved |= improveTeamsPair(firstTeamIndex, secondTeamIndex);
+          }
+        }
+      }
+
+      for (int teamIndex = 0; teamIndex < teams.size(); teamIndex++) {
+        Team team = teams.get(teamIndex);
+
+        team.clear();
+
+        for (int player : teamsPlayers[teamIndex]) {
+          team.addPlayer(packedRoster.getPlayer(player));
+        }
+      }
+    }
+
+    /**
+     * Improves the distribution of two teams by swapping players between them while the skill points difference between them decreases.
+     *
+     * <p>The players of each team are split in swappable blocks: every anchorage is a block, and so is every non-anchored player. A swap exchanges
+     * a block of the first team with either a block of the second team or a set of non-anchored players of the second team, always with the same
+     * number of players per position, so the position sets sizes never change and the anchored players are always moved together. The symmetric
+     * swaps of the second team anchorages are considered too.
+     *
+     * <p>Only the skill points of the exchanged players affect the result, so every swap is evaluated in constant time from the current
+     * difference. On each iteration, the swap that reduces the difference the most is applied, and the process ends when no swap improves it.
+     *
+     * @param team1 Index of the first team.
+     * @param team2 Index of the second team.
+     *
+     * @return Whether any swap was applied.
+     */
+    private boolean improveTeamsPair(int team1, int team2) {
+      boolean improved = false;
+
+      int skillDifference = teamsSkills[team1] - teamsSkills[team2];
+
+      while (skillDifference != 0) {
+        int team1FreePlayersCount = collectFreePlayers(team1, team1FreePlayers);
+        int team2FreePlayersCount = collectFreePlayers(team2, team2FreePlayers);
+        int team1AnchoragesCount = collectAnchorages(team1, team1Anchorages);
+        int team2AnchoragesCount = collectAnchorages(team2, team2Anchorages);
+        int bestDifference = Math.abs(skillDifference);
+
+        bestOutgoingCount = 0;
+
+        for (int anchorageIndex = 0; anchorageIndex < team1AnchoragesCount; anchorageIndex++) {
+          int outgoing = team1Anchorages[anchorageIndex];
+          int outgoingSkill = anchoragesSkills[outgoing];
+
+          if (findClosestMatchingPlayers(anchoragesPlayersPerPosition[outgoing], anchoragesSizes[outgoing], team2FreePlayers, team2FreePlayersCount,
+                                         2 * outgoingSkill - skillDifference)) {
+            int newDifference = Math.abs(skillDifference - 2 * (outgoingSkill - getSkill(closestPlayers, closestPlayersCount)));
+
+            if (newDifference < bestDifference) {
+              bestDifference = newDifference;
+              bestOutgoingCount = collectAnchorageMembers(outgoing, team1, bestOutgoing);
+              bestIncomingCount = copyClosestPlayers(bestIncoming);
+            }
+          }
+
+          for (int otherAnchorageIndex = 0; otherAnchorageIndex < team2AnchoragesCount; otherAnchorageIndex++) {
+            int incoming = team2Anchorages[otherAnchorageIndex];
+
+            if (Arrays.equals(anchoragesPlayersPerPosition[outgoing], anchoragesPlayersPerPosition[incoming])) {
+              int newDifference = Math.abs(skillDifference - 2 * (outgoingSkill - anchoragesSkills[incoming]));
+
+              if (newDifference < bestDifference) {
+                bestDifference = newDifference;
+                bestOutgoingCount = collectAnchorageMembers(outgoing, team1, bestOutgoing);
+                bestIncomingCount = collectAnchorageMembers(incoming, team2, bestIncoming);
+              }
+            }
+          }
+        }
+
+        for (int playerIndex = 0; playerIndex < team1FreePlayersCount; playerIndex++) {
+          int outgoing = team1FreePlayers[playerIndex];
+          int outgoingSkill = packedRoster.getSkill(outgoing);
+
+          Arrays.fill(playerComposition, 0);
+
+          playerComposition[packedRoster.getPosition(outgoing)] = 1;
+
+          if (findClosestMatchingPlayers(playerComposition, 1, team2FreePlayers, team2FreePlayersCount, 2 * outgoingSkill - skillDifference)) {
+            int newDifference = Math.abs(skillDifference - 2 * (outgoingSkill - getSkill(closestPlayers, closestPlayersCount)));
+
+            if (newDifference < bestDifference) {
+              bestDifference = newDifference;
+              bestOutgoing[0] = outgoing;
+              bestOutgoingCount = 1;
+              bestIncomingCount = copyClosestPlayers(bestIncoming);
+            }
+          }
+        }
+
+        for (int anchorageIndex = 0; anchorageIndex < team2AnchoragesCount; anchorageIndex++) {
+          int incoming = team2Anchorages[anchorageIndex];
+          int incomingSkill = anchoragesSkills[incoming];
+
+          if (findClosestMatchingPlayers(anchoragesPlayersPerPosition[incoming], anchoragesSizes[incoming], team1FreePlayers, team1FreePlayersCount,
+                                         2 * incomingSkill + skillDifference)) {
+            int newDifference = Math.abs(skillDifference - 2 * (getSkill(closestPlayers, closestPlayersCount) - incomingSkill));
+
+            if (newDifference < bestDifference) {
+              bestDifference = newDifference;
+              bestOutgoingCount = copyClosestPlayers(bestOutgoing);
+              bestIncomingCount = collectAnchorageMembers(incoming, team2, bestIncoming);
+            }
+          }
+        }
+
+        if (bestOutgoingCount == 0) {
+          break;
+        }
+
+        skillDifference -= 2 * (getSkill(bestOutgoing, bestOutgoingCount) - getSkill(bestIncoming, bestIncomingCount));
+
+        swapBestBlocks(team1, team2);
+
+        improved = true;
+      }
+
+      return improved;
+    }
+
+    /**
+     * Searches for the set of candidates with the given number of players per position whose skill points are the closest to the target, and
+     * keeps it as the closest players.
+     *
+     * @param composition        Number of players per position to match.
+     * @param size               Total number of players to match.
+     * @param freePlayers        Players that can be chosen.
+     * @param freePlayersCount   Number of players that can be chosen.
+     * @param doubledTargetSkill Twice the desired skill points of the chosen players.
+     *
+     * @return Whether any set of candidates matches the composition.
+     */
+    private boolean findClosestMatchingPlayers(int[] composition, int size, int[] freePlayers, int freePlayersCount, int doubledTargetSkill) {
+      System.arraycopy(composition, 0, neededPerPosition, 0, neededPerPosition.length);
+
+      candidatesCount = 0;
+
+      for (int playerIndex = 0; playerIndex < freePlayersCount; playerIndex++) {
+        if (neededPerPosition[packedRoster.getPosition(freePlayers[playerIndex])] > 0) {
+          candidates[candidatesCount++] = freePlayers[playerIndex];
+        }
+      }
+
+      closestGap = Integer.MAX_VALUE;
+      closestPlayersCount = 0;
+
+      searchClosestCombination(0, size, 0, 0, doubledTargetSkill);
+
+      return closestGap != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Recursively chooses candidates until the needed players per position are met, keeping the combination whose skill points are the closest to
+     * the target.
+     *
+     * @param candidateIndex     Index of the candidate to decide.
+     * @param neededPlayers      Total players still needed.
+     * @param chosenCount        Number of players chosen so far.
+     * @param chosenSkill        Skill points of the players chosen so far.
+     * @param doubledTargetSkill Twice the desired skill points of the chosen players.
+     */
+    private void searchClosestCombination(int candidateIndex, int neededPlayers, int chosenCount, int chosenSkill, int doubledTargetSkill) {
+      if (neededPlayers == 0) {
+        int gap = Math.abs(2 * chosenSkill - doubledTargetSkill);
+
+        if (gap < closestGap) {
+          closestGap = gap;
+          closestPlayersCount = chosenCount;
+
+          System.arraycopy(chosen, 0, closestPlayers, 0, chosenCount);
+        }
+
+        return;
+      }
+
+      if (candidateIndex == candidatesCount || closestGap == 0) {
+        return;
+      }
+
+      int candidate = candidates[candidateIndex];
+      int positionIndex = packedRoster.getPosition(candidate);
+
+      if (neededPerPosition[positionIndex] > 0) {
+        neededPerPosition[positionIndex]--;
+        chosen[chosenCount] = candidate;
+
+        searchClosestCombination(candidateIndex + 1, neededPlayers - 1, chosenCount + 1, chosenSkill + packedRoster.getSkill(candidate),
+                                 doubledTargetSkill);
+
+        neededPerPosition[positionIndex]++;
+      }
+
+      searchClosestCombination(candidateIndex + 1, neededPlayers, chosenCount, chosenSkill, doubledTargetSkill);
+    }
+
+    /**
+     * Swaps the best outgoing players of the first team with the best incoming players of the second team. The moved players are added after the
+     * players of their position that stay, as the teams do.
+     *
+     * @param team1 Index of the first team.
+     * @param team2 Index of the second team.
+     */
+    private void swapBestBlocks(int team1, int team2) {
+      for (int playerIndex = 0; playerIndex < bestOutgoingCount; playerIndex++) {
+        removeFromTeam(bestOutgoing[playerIndex], team1);
+      }
+
+      for (int playerIndex = 0; playerIndex < bestIncomingCount; playerIndex++) {
+        removeFromTeam(bestIncoming[playerIndex], team2);
+      }
+
+      for (int playerIndex = 0; playerIndex < bestOutgoingCount; playerIndex++) {
+        addToTeam(bestOutgoing[playerIndex], team2);
+      }
+
+      for (int playerIndex = 0; playerIndex < bestIncomingCount; playerIndex++) {
+        addToTeam(bestIncoming[playerIndex], team1);
+      }
+    }
+
+    /**
+     * Adds a player after the players of its position in a team.
+     *
+     * @param player Index of the player.
+     * @param team   Index of the team.
+     */
+    private void addToTeam(int player, int team) {
+      int positionIndex = packedRoster.getPosition(player);
+
+      teamsPlayers[team][positionSlotsStarts[positionIndex] + teamsPlayersCountPerPosition[team][positionIndex]++] = player;
+      teamsSkills[team] += packedRoster.getSkill(player);
+      teamOf[player] = team;
+    }
+
+    /**
+     * Removes a player from a team, keeping the order of the rest of the players of its position.
+     *
+     * @param player Index of the player.
+     * @param team   Index of the team.
+     */
+    private void removeFromTeam(int player, int team) {
+      int positionIndex = packedRoster.getPosition(player);
+      int slot = positionSlotsStarts[positionIndex];
+      int end = slot + teamsPlayersCountPerPosition[team][positionIndex]--;
+
+      int[] teamPlayers = teamsPlayers[team];
+
+      while (teamPlayers[slot] != player) {
+        slot++;
+      }
+
+      System.arraycopy(teamPlayers, slot + 1, teamPlayers, slot, end - slot - 1);
+
+      teamsSkills[team] -= packedRoster.getSkill(player);
+    }
+
+    /**
+     * @param team   Index of the team.
+     * @param buffer Where to write the players.
+     *
+     * @return The number of non-anchored players of the team, written in the buffer in the same order as the team.
+     */
+    private int collectFreePlayers(int team, int[] buffer) {
+      int count = 0;
+
+      for (int player : teamsPlayers[team]) {
+        if (anchorageOf[player] == PackedRoster.NOT_ANCHORED) {
+          buffer[count++] = player;
+        }
+      }
+
+      return count;
+    }
+
+    /**
+     * @param team   Index of the team.
+     * @param buffer Where to write the anchorages.
+     *
+     * @return The number of anchorages of the team, written in the buffer from lowest to highest index.
+     */
+    private int collectAnchorages(int team, int[] buffer) {
+      int count = 0;
+
+      for (int anchorage = 0; anchorage < anchoragesSizes.length; anchorage++) {
+        if (anchoragesSizes[anchorage] > 1 && teamOf[anchoragesFirstMembers[anchorage]] == team) {
+          buffer[count++] = anchorage;
+        }
+      }
+
+      return count;
+    }
+
+    /**
+     * @param anchorage Index of the anchorage.
+     * @param team      Index of the team the anchorage belongs to.
+     * @param buffer    Where to write the players.
+     *
+     * @return The number of players of the anchorage, written in the buffer in the same order as the team.
+     */
+    private int collectAnchorageMembers(int anchorage, int team, int[] buffer) {
+      int count = 0;
+
+      for (int player : teamsPlayers[team]) {
+        if (anchorageOf[player] == anchorage) {
+          buffer[count++] = player;
+        }
+      }
+
+      return count;
+    }
+
+    /**
+     * @param buffer Where to write the players.
+     *
+     * @return The number of closest players, written in the buffer.
+     */
+    private int copyClosestPlayers(int[] buffer) {
+      System.arraycopy(closestPlayers, 0, buffer, 0, closestPlayersCount);
+
+      return closestPlayersCount;
+    }
+
+    /**
+     * @param players Indexes of the players whose skill points will be added.
+     * @param count   Number of players.
+     *
+     * @return The sum of the players skill points.
+     */
+    private int getSkill(int[] players, int count) {
+      int skill = 0;
+
+      for (int playerIndex = 0; playerIndex < count; playerIndex++) {
+        skill += packedRoster.getSkill(players[playerIndex]);
+      }
+
+      return skill;
+    }
+  }
+}
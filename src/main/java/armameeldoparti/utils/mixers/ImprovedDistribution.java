@@ -0,0 +1,111 @@
+package armameeldoparti.utils.mixers;
+
+import armameeldoparti.models.Distribution;
+
+import java.util.List;
+
+/**
+ * Improved distribution class.
+ *
+ * <p>Immutable result of a search of {@link AnytimeBySkillPointsMixer}: the best distribution it found within its time budget, along with how its
+ * quality evolved over time, so the time budget can be chosen from the quality it actually buys.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public class ImprovedDistribution {
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private int seedSkillSpread;
+
+  private long acceptedMoves;
+  private long elapsedNanos;
+  private long iterations;
+
+  private Distribution distribution;
+
+  private List<Improvement> improvements;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds the result of a search.
+   *
+   * @param distribution    Best distribution found.
+   * @param seedSkillSpread Skill points spread of the distribution the search started from.
+   * @param improvements    Every time the best distribution improved, in chronological order.
+   * @param iterations      Number of moves evaluated by the search.
+   * @param acceptedMoves   Number of evaluated moves that were applied.
+   * @param elapsedNanos    Total duration of the search, including the seed distribution.
+   */
+  public ImprovedDistribution(Distribution distribution, int seedSkillSpread, List<Improvement> improvements, long iterations, long acceptedMoves,
+                              long elapsedNanos) {
+    this.distribution = distribution;
+    this.seedSkillSpread = seedSkillSpread;
+    this.improvements = List.copyOf(improvements);
+    this.iterations = iterations;
+    this.acceptedMoves = acceptedMoves;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  // ---------- Getters ------------------------------------------------------------------------------------------------------------------------------
+
+  public int getSeedSkillSpread() {
+    return seedSkillSpread;
+  }
+
+  public long getAcceptedMoves() {
+    return acceptedMoves;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  public long getIterations() {
+    return iterations;
+  }
+
+  public Distribution getDistribution() {
+    return distribution;
+  }
+
+  public List<Improvement> getImprovements() {
+    return improvements;
+  }
+
+  // ---------- Nested classes -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Improvement of the best distribution of a search: when it happened and the skill points spread it reached.
+   */
+  public static final class Improvement {
+
+    private int skillSpread;
+
+    private long elapsedNanos;
+
+    /**
+     * Builds an improvement.
+     *
+     * @param elapsedNanos Time since the search started.
+     * @param skillSpread  Skill points spread of the new best distribution.
+     */
+    public Improvement(long elapsedNanos, int skillSpread) {
+      this.elapsedNanos = elapsedNanos;
+      this.skillSpread = skillSpread;
+    }
+
+    public int getSkillSpread() {
+      return skillSpread;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package armameeldoparti.utils.mixers;
+
+import armameeldoparti.models.Distribution;
+
+/**
+ * Interface that specifies how a long players distribution reports its progress and how it can be stopped.
+ *
+ * <p>The methods are called from the threads that run the distribution (more than one at the same time when searching in parallel), so they must be
+ * thread-safe and return quickly. Every method does nothing by default, so only the needed ones have to be implemented.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public interface MixingListener {
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Called every time the distribution finds a better distribution than the previous best one, so it can be shown before the distribution ends.
+   *
+   * @param distribution Best distribution found so far.
+   */
+  default void bestDistributionFound(Distribution distribution) {
+    // Body not needed by default
+  }
+
+  /**
+   * Called periodically while the distribution runs.
+   *
+   * @param searchCoverage Fraction of the search space that has already been searched or discarded, between 0 and 1.
+   */
+  default void searchProgressed(double searchCoverage) {
+    // Body not needed by default
+  }
+
+  /**
+   * Checked periodically while the distribution runs. Once it returns {@code true}, the distribution stops and returns the best distributions found
+   * so far.
+   *
+   * @return Whether the distribution must stop.
+   */
+  default boolean shouldStop() {
+    return false;
+  }
+}
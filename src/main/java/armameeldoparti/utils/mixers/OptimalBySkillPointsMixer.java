@@ -0,0 +1,591 @@
+package armameeldoparti.utils.mixers;
+
+import static java.util.Comparator.comparingInt;
+
+import armameeldoparti.models.Distribution;
+import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.enums.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optimal by-skill-points distribution class.
+ *
+ * <p>Unlike {@link BySkillPointsMixer}, this mixer does not rely on heuristics: it explores the possible distributions with a pruned branch-and-bound
+ * search and returns the one with the smallest skill points difference between the teams, always respecting the players limit per position.
+ *
+ * <p>The same search keeps a pool with the {@link #DISTRIBUTIONS_POOL_SIZE} best distinct distributions, ranked by their skill points difference,
+ * which can be obtained along with the search statistics with {@link #rankWithoutAnchorages(Roster)} and {@link #rankWithAnchorages(Roster)}.
+ *
+ * <p>The candidate distributions are handled as bitmasks through a {@link BitmaskRoster}, and only the ranked ones are converted to teams. For this
+ * reason, it only supports two teams and up to {@link #MAX_PLAYERS} players.
+ *
+ * <p>In parallel mode, the first levels of the search are split in tasks that run in the common {@link ForkJoinPool}, along with the calling
+ * thread. All of them share the pool and its pruning difference, so every task prunes its branches with the results of the others.
+ *
+ * <p>Every search keeps its state in its own {@link Search}, so the same mixer can be used by several threads at the same time.
+ *
+ * <p>A {@link MixingListener} can follow the search: it is notified of every new best distribution and of the search coverage every
+ * {@link #PROGRESS_INTERVAL} visited nodes per task, and it can stop the search, which then returns the best distributions found so far.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public class OptimalBySkillPointsMixer implements PlayersMixer {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final int EXTRA_SPLIT_LEVELS = 4;
+
+  private static final MixingListener SILENT_LISTENER = new MixingListener() {};
+
+  // ---------- Public constants ---------------------------------------------------------------------------------------------------------------------
+
+  public static final int DISTRIBUTIONS_POOL_SIZE = 10;
+  public static final int MAX_PLAYERS = BitmaskRoster.MAX_PLAYERS;
+  public static final int PROGRESS_INTERVAL = 1 << 14;
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private boolean parallel;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds the optimal by-skill-points players distributor, searching sequentially.
+   */
+  public OptimalBySkillPointsMixer() {
+    this(false);
+  }
+
+  /**
+   * Builds the optimal by-skill-points players distributor.
+   *
+   * @param parallel Whether to split the search across the available processors.
+   */
+  public OptimalBySkillPointsMixer(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Distributes the players by their skill points without considering anchorages, minimizing the skill points difference between the teams.
+   *
+   * @param roster Players to distribute, along with the players limit per position.
+   *
+   * @return The players distributed optimally by their skill points, without considering anchorages.
+   *
+   * @throws IllegalArgumentException If the roster does not have two teams or has more than {@link #MAX_PLAYERS} players.
+   *
+   * @see #rankWithoutAnchorages(Roster)
+   */
+  @Override
+  public Distribution withoutAnchorages(Roster roster) {
+    return rankWithoutAnchorages(roster).getDistributions()
+                                        .getFirst();
+  }
+
+  /**
+   * Distributes the players by their skill points considering anchorages, minimizing the skill points difference between the teams.
+   *
+   * <p>Every anchorage is treated as an indivisible unit, so its players always end up in the same team.
+   *
+   * @param roster Players to distribute, along with their anchorages and the players limit per position.
+   *
+   * @return The players distributed optimally by their skill points, considering anchorages.
+   *
+   * @throws IllegalArgumentException If the roster does not have two teams, has more than {@link #MAX_PLAYERS} players or its anchorages cannot be
+   *                                  distributed.
+   *
+   * @see #rankWithAnchorages(Roster)
+   */
+  @Override
+  public Distribution withAnchorages(Roster roster) {
+    return rankWithAnchorages(roster).getDistributions()
+                                     .getFirst();
+  }
+
+  /**
+   * Searches for the best distributions of the players by their skill points, without considering anchorages.
+   *
+   * @param roster Players to distribute, along with the players limit per position.
+   *
+   * @return Up to {@link #DISTRIBUTIONS_POOL_SIZE} distinct distributions ranked by their skill points difference, along with the search statistics.
+   *
+   * @throws IllegalArgumentException If the roster does not have two teams or has more than {@link #MAX_PLAYERS} players.
+   */
+  public RankedDistributions rankWithoutAnchorages(Roster roster) {
+    return rankWithoutAnchorages(roster, SILENT_LISTENER);
+  }
+
+  /**
+   * Searches for the best distributions of the players by their skill points, without considering anchorages, reporting the search progress.
+   *
+   * @param roster   Players to distribute, along with the players limit per position.
+   * @param listener Listener to notify of the search progress, which can also stop it.
+   *
+   * @return Up to {@link #DISTRIBUTIONS_POOL_SIZE} distinct distributions ranked by their skill points difference, along with the search statistics.
+   *         If the search was stopped, they are the best ones found until then.
+   *
+   * @throws IllegalArgumentException If the roster does not have two teams or has more than {@link #MAX_PLAYERS} players.
+   * @throws CancellationException    If the search was stopped before finding any distribution.
+   */
+  public RankedDistributions rankWithoutAnchorages(Roster roster, MixingListener listener) {
+    return new Search(roster, List.of(), listener).run();
+  }
+
+  /**
+   * Searches for the best distributions of the players by their skill points, considering anchorages.
+   *
+   * @param roster Players to distribute, along with their anchorages and the players limit per position.
+   *
+   * @return Up to {@link #DISTRIBUTIONS_POOL_SIZE} distinct distributions ranked by their skill points difference, along with the search statistics.
+   *
+   * @throws IllegalArgumentException If the roster does not have two teams, has more than {@link #MAX_PLAYERS} players or its anchorages cannot be
+   *                                  distributed.
+   */
+  public RankedDistributions rankWithAnchorages(Roster roster) {
+    return rankWithAnchorages(roster, SILENT_LISTENER);
+  }
+
+  /**
+   * Searches for the best distributions of the players by their skill points, considering anchorages and reporting the search progress.
+   *
+   * @param roster   Players to distribute, along with their anchorages and the players limit per position.
+   * @param listener Listener to notify of the search progress, which can also stop it.
+   *
+   * @return Up to {@link #DISTRIBUTIONS_POOL_SIZE} distinct distributions ranked by their skill points difference, along with the search statistics.
+   *         If the search was stopped, they are the best ones found until then.
+   *
+   * @throws IllegalArgumentException If the roster does not have two teams, has more than {@link #MAX_PLAYERS} players or its anchorages cannot be
+   *                                  distributed.
+   * @throws CancellationException    If the search was stopped before finding any distribution.
+   */
+  public RankedDistributions rankWithAnchorages(Roster roster, MixingListener listener) {
+    return new Search(roster, roster.getAnchorages(), listener).run();
+  }
+
+  // ---------- Getters ------------------------------------------------------------------------------------------------------------------------------
+
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  // ---------- Nested classes -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Search for the best distributions of a single roster, holding all of its state.
+   */
+  private final class Search {
+
+    private volatile boolean stopped;
+
+    private int bestDifference;
+    private int groupsCount;
+    private int splitDepth;
+    private int totalSkill;
+
+    private int[] singlesBlockEnd;
+    private int[] singlesBlockStart;
+    private int[] unitSkills;
+    private int[] unitsSkillPrefixSums;
+
+    private long[] unitMasks;
+
+    private AtomicInteger pruningDifference;
+
+    private BitmaskRoster bitmaskRoster;
+
+    private DoubleAdder searchCoverage;
+
+    private LongAdder prunedNodes;
+    private LongAdder visitedNodes;
+
+    private MixingListener listener;
+
+    private PriorityQueue<Long> distributionsPool;
+
+    private Roster roster;
+
+    /**
+     * Builds the bitmask representation of the roster and splits its players in indivisible units.
+     *
+     * @param roster     Players to distribute.
+     * @param anchorages Anchored players to keep together, grouped by their anchorage.
+     * @param listener   Listener to notify of the search progress.
+     *
+     * @throws IllegalArgumentException If the roster does not have two teams or has more than {@link #MAX_PLAYERS} players.
+     */
+    private Search(Roster roster, List<List<Player>> anchorages, MixingListener listener) {
+      if (roster.getTeamsCount() != 2) {
+        throw new IllegalArgumentException("La distribución óptima sólo admite dos equipos");
+      }
+
+      this.roster = roster;
+      this.listener = listener;
+
+      bitmaskRoster = new BitmaskRoster(new PackedRoster(roster));
+
+      buildUnits(roster.getPlayersSets(), anchorages);
+
+      distributionsPool = new PriorityQueue<>(comparingInt(this::getDifference).reversed());
+      pruningDifference = new AtomicInteger(Integer.MAX_VALUE);
+      bestDifference = Integer.MAX_VALUE;
+      searchCoverage = new DoubleAdder();
+      prunedNodes = new LongAdder();
+      visitedNodes = new LongAdder();
+
+      // In parallel mode, there are a few tasks per available processor so that the ones that end up pruned early do not leave processors idle
+      splitDepth = parallel ? 1 + EXTRA_SPLIT_LEVELS + Integer.SIZE - Integer.numberOfLeadingZeros(ForkJoinPool.getCommonPoolParallelism()) : 0;
+    }
+
+    /**
+     * Searches for the distributions with the smallest skill points difference between the two teams and ranks them.
+     *
+     * <p>The players are split in indivisible units: first the anchored groups (biggest first) and then every remaining player on its own. The
+     * single players are grouped by position and ordered from highest to lowest skill points, so the remaining players of any position are always a
+     * suffix of its block. For every unit, the search decides whether it goes to the first team or not.
+     *
+     * <p>A branch is discarded when it cannot fill the first team position sets exactly, or when the pool is full and the best skill points
+     * difference the branch could reach is not better than the worst one in the pool. Since every branch decides a different set of players for the
+     * first team, the distributions in the pool are always distinct. The search stops as soon as the pool is full of perfectly balanced
+     * distributions, or when the listener asks it to stop.
+     *
+     * @return The ranked distributions, along with the search statistics.
+     *
+     * @throws IllegalArgumentException If there is no feasible distribution.
+     * @throws CancellationException    If the search was stopped before finding any distribution.
+     */
+    private RankedDistributions run() {
+      // Both teams are interchangeable, so the first unit is fixed to the first team
+      if (bitmaskRoster.fitsPositionLimits(unitMasks[0])) {
+        new SearchTask(1, unitMasks[0], bitmaskRoster.getAllPlayersMask() & ~unitMasks[0], unitSkills[0]).invoke();
+      }
+
+      if (distributionsPool.isEmpty()) {
+        if (stopped) {
+          throw new CancellationException("La distribución se detuvo antes de encontrar algún resultado");
+        }
+
+        throw new IllegalArgumentException("Los anclajes no se pueden distribuir entre los equipos");
+      }
+
+      List<Distribution> distributions = distributionsPool.stream()
+                                                          .sorted(comparingInt(this::getDifference).thenComparingLong(Long::longValue))
+                                                          .map(this::toDistribution)
+                                                          .toList();
+
+      return new RankedDistributions(distributions, visitedNodes.sum(), prunedNodes.sum(), searchCoverage.sum());
+    }
+
+    /**
+     * Adds the given distribution to the pool if it is not full or if it is better than the worst one in it, which is then discarded.
+     *
+     * <p>Once the pool is full, the skill points difference of its worst distribution becomes the one used to prune the search. If the distribution is
+     * the best one found so far, the listener is notified.
+     *
+     * @param team1Mask Players of the first team of the distribution.
+     */
+    private synchronized void offerDistribution(long team1Mask) {
+      int difference = getDifference(team1Mask);
+
+      if (difference < bestDifference) {
+        bestDifference = difference;
+
+        listener.bestDistributionFound(toDistribution(team1Mask));
+      }
+
+      if (distributionsPool.size() == DISTRIBUTIONS_POOL_SIZE) {
+        if (getDifference(team1Mask) >= getDifference(distributionsPool.peek())) {
+          return;
+        }
+
+        distributionsPool.poll();
+      }
+
+      distributionsPool.add(team1Mask);
+
+      if (distributionsPool.size() == DISTRIBUTIONS_POOL_SIZE) {
+        pruningDifference.set(getDifference(distributionsPool.peek()));
+      }
+    }
+
+    /**
+     * Calculates the smallest skill points difference that could be reached from the current branch.
+     *
+     * <p>Inside the single players section, the first team must still take exactly the missing players of each position from the remaining suffix of
+     * its block, so its final skill points are bounded by taking the weakest or the strongest ones. While anchored groups are still being decided,
+     * the bound is not calculated.
+     *
+     * @param unitIndex  Index of the next unit to decide.
+     * @param team1Mask  Players assigned so far to the first team.
+     * @param team1Skill Skill points accumulated so far by the first team.
+     *
+     * @return The smallest skill points difference that could be reached from the current branch.
+     */
+    private int lowerBound(int unitIndex, long team1Mask, int team1Skill) {
+      if (unitIndex < groupsCount) {
+        return 0;
+      }
+
+      int lowestTeam1Skill = team1Skill;
+      int highestTeam1Skill = team1Skill;
+
+      for (int positionIndex = 0; positionIndex < singlesBlockStart.length; positionIndex++) {
+        int missing = bitmaskRoster.getMissingPlayers(team1Mask, positionIndex);
+
+        if (missing == 0) {
+          continue;
+        }
+
+        int from = Math.max(unitIndex, singlesBlockStart[positionIndex]);
+        int to = singlesBlockEnd[positionIndex];
+
+        highestTeam1Skill += unitsSkillPrefixSums[from + missing] - unitsSkillPrefixSums[from];
+        lowestTeam1Skill += unitsSkillPrefixSums[to] - unitsSkillPrefixSums[to - missing];
+      }
+
+      if (2 * lowestTeam1Skill > totalSkill) {
+        return 2 * lowestTeam1Skill - totalSkill;
+      }
+
+      if (2 * highestTeam1Skill < totalSkill) {
+        return totalSkill - 2 * highestTeam1Skill;
+      }
+
+      return totalSkill % 2;
+    }
+
+    /**
+     * Splits the players in indivisible units and precomputes the per-unit masks and skill points used by the search.
+     *
+     * @param playersSets Players to distribute, grouped by their position.
+     * @param anchorages  Anchored players grouped by their anchorage.
+     */
+    private void buildUnits(Map<Position, List<Player>> playersSets, List<List<Player>> anchorages) {
+      Position[] positions = Position.values();
+
+      List<List<Player>> units = new ArrayList<>(anchorages);
+
+      units.sort(comparingInt(List<Player>::size).reversed());
+
+      groupsCount = units.size();
+
+      long anchoredMask = bitmaskRoster.getMask(anchorages.stream()
+                                                   .flatMap(List::stream)
+                                                   .toList());
+
+      singlesBlockStart = new int[positions.length];
+      singlesBlockEnd = new int[positions.length];
+
+      for (Position position : positions) {
+        List<Player> singles = new ArrayList<>(playersSets.get(position));
+
+        singles.removeIf(player -> (bitmaskRoster.getMask(List.of(player)) & anchoredMask) != 0);
+        singles.sort(comparingInt(Player::getSkillPoints).reversed());
+
+        singlesBlockStart[position.ordinal()] = units.size();
+        singles.forEach(player -> units.add(List.of(player)));
+        singlesBlockEnd[position.ordinal()] = units.size();
+      }
+
+      unitMasks = new long[units.size()];
+      unitSkills = new int[units.size()];
+      unitsSkillPrefixSums = new int[units.size() + 1];
+
+      for (int unitIndex = 0; unitIndex < units.size(); unitIndex++) {
+        unitMasks[unitIndex] = bitmaskRoster.getMask(units.get(unitIndex));
+        unitSkills[unitIndex] = bitmaskRoster.getSkill(unitMasks[unitIndex]);
+        unitsSkillPrefixSums[unitIndex + 1] = unitsSkillPrefixSums[unitIndex] + unitSkills[unitIndex];
+      }
+
+      totalSkill = unitsSkillPrefixSums[units.size()];
+    }
+
+    /**
+     * Notifies the listener of the search coverage so far, and stops the search if the listener asks for it.
+     */
+    private void reportProgress() {
+      if (listener.shouldStop()) {
+        stopped = true;
+      }
+
+      listener.searchProgressed(searchCoverage.sum());
+    }
+
+    /**
+     * @param team1Mask Players of the first team of a distribution.
+     *
+     * @return The distribution with the given players in the first team and the rest in the second one.
+     */
+    private Distribution toDistribution(long team1Mask) {
+      return new Distribution(bitmaskRoster.applyTo(new long[] {team1Mask, bitmaskRoster.getAllPlayersMask() & ~team1Mask}, roster.createTeams()));
+    }
+
+    /**
+     * @param team1Mask Players of the first team of a distribution.
+     *
+     * @return The skill points difference between the teams of the distribution.
+     */
+    private int getDifference(long team1Mask) {
+      return Math.abs(2 * bitmaskRoster.getSkill(team1Mask) - totalSkill);
+    }
+
+    /**
+     * @param unitIndex Index of the next unit to decide in a branch.
+     *
+     * @return The fraction of the search space below a branch where the units before the given one are decided.
+     */
+    private static double getBranchSpace(int unitIndex) {
+      return Math.scalb(1.0, 1 - unitIndex);
+    }
+
+    /**
+     * Search task that decides the units from a given branch on.
+     *
+     * <p>While the branch is shallower than the split depth, every feasible sub-branch becomes a new task. Deeper branches are searched recursively
+     * by the same task. The search statistics are kept per task and added to the ones of the search every {@link #PROGRESS_INTERVAL} visited nodes,
+     * when the listener is notified, and when the task finishes.
+     */
+    private final class SearchTask extends RecursiveAction {
+
+      private int team1Skill;
+      private int unitIndex;
+
+      private long prunedNodesCount;
+      private long team1Mask;
+      private long undecidedMask;
+      private long visitedNodesCount;
+
+      private double coveredSpace;
+
+      /**
+       * Builds a search task for the given branch.
+       *
+       * @param unitIndex     Index of the unit to decide.
+       * @param team1Mask     Players assigned so far to the first team.
+       * @param undecidedMask Players whose team has not been decided yet.
+       * @param team1Skill    Skill points accumulated so far by the first team.
+       */
+      private SearchTask(int unitIndex, long team1Mask, long undecidedMask, int team1Skill) {
+        this.unitIndex = unitIndex;
+        this.team1Mask = team1Mask;
+        this.undecidedMask = undecidedMask;
+        this.team1Skill = team1Skill;
+      }
+
+      @Override
+      protected void compute() {
+        List<SearchTask> subtasks = new ArrayList<>();
+
+        search(unitIndex, team1Mask, undecidedMask, team1Skill, subtasks);
+        flushStatistics();
+
+        invokeAll(subtasks);
+      }
+
+      /**
+       * Adds the statistics of the task to the ones of the search and resets them.
+       */
+      private void flushStatistics() {
+        searchCoverage.add(coveredSpace);
+        prunedNodes.add(prunedNodesCount);
+        visitedNodes.add(visitedNodesCount);
+
+        coveredSpace = 0;
+        prunedNodesCount = 0;
+        visitedNodesCount = 0;
+      }
+
+      /**
+       * Recursively decides which team every unit goes to, starting from the specified one.
+       *
+       * @param unitIndex     Index of the unit to decide.
+       * @param team1Mask     Players assigned so far to the first team.
+       * @param undecidedMask Players whose team has not been decided yet.
+       * @param team1Skill    Skill points accumulated so far by the first team.
+       * @param subtasks      Tasks where to place the sub-branches that must be searched separately.
+       */
+      private void search(int unitIndex, long team1Mask, long undecidedMask, int team1Skill, List<SearchTask> subtasks) {
+        if (stopped) {
+          return;
+        }
+
+        if (++visitedNodesCount == PROGRESS_INTERVAL) {
+          flushStatistics();
+          reportProgress();
+        }
+
+        if (pruningDifference.get() == totalSkill % 2) {
+          return;
+        }
+
+        if (unitIndex == unitMasks.length) {
+          coveredSpace += getBranchSpace(unitIndex);
+
+          offerDistribution(team1Mask);
+
+          return;
+        }
+
+        if (lowerBound(unitIndex, team1Mask, team1Skill) >= pruningDifference.get()) {
+          prunedNodesCount++;
+          coveredSpace += getBranchSpace(unitIndex);
+
+          return;
+        }
+
+        long unitMask = unitMasks[unitIndex];
+        long remainingMask = undecidedMask & ~unitMask;
+
+        // The most promising branch is explored first: the first team takes the unit only while it is behind
+        boolean takeFirst = 2 * team1Skill < totalSkill;
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+          if (takeFirst == (attempt == 0)) {
+            if (bitmaskRoster.fitsPositionLimits(team1Mask | unitMask)) {
+              branch(unitIndex + 1, team1Mask | unitMask, remainingMask, team1Skill + unitSkills[unitIndex], subtasks);
+            } else {
+              coveredSpace += getBranchSpace(unitIndex + 1);
+            }
+          } else if (bitmaskRoster.canFillPositionLimits(team1Mask, remainingMask)) {
+            branch(unitIndex + 1, team1Mask, remainingMask, team1Skill, subtasks);
+          } else {
+            coveredSpace += getBranchSpace(unitIndex + 1);
+          }
+        }
+      }
+
+      /**
+       * Searches the given sub-branch, either right away or as a separate task if it is shallower than the split depth.
+       *
+       * @param unitIndex     Index of the unit to decide.
+       * @param team1Mask     Players assigned so far to the first team.
+       * @param undecidedMask Players whose team has not been decided yet.
+       * @param team1Skill    Skill points accumulated so far by the first team.
+       * @param subtasks      Tasks where to place the sub-branches that must be searched separately.
+       */
+      private void branch(int unitIndex, long team1Mask, long undecidedMask, int team1Skill, List<SearchTask> subtasks) {
+        if (unitIndex < splitDepth) {
+          subtasks.add(new SearchTask(unitIndex, team1Mask, undecidedMask, team1Skill));
+        } else {
+          search(unitIndex, team1Mask, undecidedMask, team1Skill, subtasks);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package armameeldoparti.utils.mixers;
+
+import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.enums.Position;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Primitive, struct-of-arrays snapshot of a roster, for the mixers inner loops.
+ *
+ * <p>Every player is identified by an index, and its skill points, position ordinal and anchorage index are kept in parallel primitive arrays, so
+ * the mixers can read them without following references, looking them up in maps or boxing them. The players are indexed grouped by position, in
+ * the same order as the Position enum, so the players of any position are a contiguous range of indexes.
+ *
+ * <p>It is built once per distribution from the roster, which is itself a snapshot of the players sets, and it is never modified, so it can be
+ * read by several threads at the same time. The players are only used again to convert the indexes back to teams.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+final class PackedRoster {
+
+  // ---------- Public constants ---------------------------------------------------------------------------------------------------------------------
+
+  public static final short NOT_ANCHORED = -1;
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private int anchoragesCount;
+  private int teamsCount;
+
+  private int[] positionLimits;
+  private int[] positionStarts;
+  private int[] skills;
+
+  private byte[] positions;
+
+  private short[] anchorages;
+
+  private Player[] players;
+
+  private Map<Player, Integer> playersIndexes;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds the primitive snapshot of the given roster.
+   *
+   * @param roster Players to distribute, along with their anchorages, the players limit per position and the number of teams.
+   */
+  PackedRoster(Roster roster) {
+    Position[] positionsValues = Position.values();
+
+    int playersCount = roster.getPlayersCount();
+
+    teamsCount = roster.getTeamsCount();
+    anchoragesCount = roster.getAnchorages()
+                            .size();
+    positionLimits = new int[positionsValues.length];
+    positionStarts = new int[positionsValues.length + 1];
+    skills = new int[playersCount];
+    positions = new byte[playersCount];
+    anchorages = new short[playersCount];
+    players = new Player[playersCount];
+    playersIndexes = new IdentityHashMap<>();
+
+    int playerIndex = 0;
+
+    for (Position position : positionsValues) {
+      positionStarts[position.ordinal()] = playerIndex;
+      positionLimits[position.ordinal()] = roster.getPlayersLimit(position);
+
+      for (Player player : roster.getPlayersSets()
+                                 .get(position)) {
+        players[playerIndex] = player;
+        skills[playerIndex] = player.getSkillPoints();
+        positions[playerIndex] = (byte) position.ordinal();
+        anchorages[playerIndex] = (short) roster.getAnchorageIndex(player);
+
+        playersIndexes.put(player, playerIndex++);
+      }
+    }
+
+    positionStarts[positionsValues.length] = playerIndex;
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @param player Player of the roster.
+   *
+   * @return The index of the player.
+   */
+  public int getIndex(Player player) {
+    return playersIndexes.get(player);
+  }
+
+  /**
+   * @param positionIndex Ordinal of a position.
+   *
+   * @return The index of the first player of the position.
+   */
+  public int getPositionStart(int positionIndex) {
+    return positionStarts[positionIndex];
+  }
+
+  /**
+   * @param positionIndex Ordinal of a position.
+   *
+   * @return The index following the last player of the position.
+   */
+  public int getPositionEnd(int positionIndex) {
+    return positionStarts[positionIndex + 1];
+  }
+
+  /**
+   * @param playerIndex Index of a player.
+   *
+   * @return The skill points of the player.
+   */
+  public int getSkill(int playerIndex) {
+    return skills[playerIndex];
+  }
+
+  /**
+   * @param playerIndex Index of a player.
+   *
+   * @return The ordinal of the player position.
+   */
+  public int getPosition(int playerIndex) {
+    return positions[playerIndex];
+  }
+
+  /**
+   * @param playerIndex Index of a player.
+   *
+   * @return The index of the anchorage of the roster the player belongs to, or {@link #NOT_ANCHORED} if it is not anchored.
+   */
+  public int getAnchorage(int playerIndex) {
+    return anchorages[playerIndex];
+  }
+
+  /**
+   * @param playerIndex Index of a player.
+   *
+   * @return The player with the given index.
+   */
+  public Player getPlayer(int playerIndex) {
+    return players[playerIndex];
+  }
+
+  /**
+   * @param positionIndex Ordinal of a position.
+   *
+   * @return The number of players of the position that every team must have.
+   */
+  public int getPositionLimit(int positionIndex) {
+    return positionLimits[positionIndex];
+  }
+
+  // ---------- Getters ------------------------------------------------------------------------------------------------------------------------------
+
+  public int getAnchoragesCount() {
+    return anchoragesCount;
+  }
+
+  public int getPlayersCount() {
+    return players.length;
+  }
+
+  public int getPositionsCount() {
+    return positionLimits.length;
+  }
+
+  public int getTeamsCount() {
+    return teamsCount;
+  }
+}
@@ -1,12 +1,14 @@
 package armameeldoparti.utils.mixers;
 
-import armameeldoparti.models.Team;
-
-import java.util.List;
+import armameeldoparti.models.Distribution;
+import armameeldoparti.models.Roster;
 
 /**
  * Interface that specifies the players distribution methods.
  *
+ * <p>The distribution methods only depend on the received roster and never modify it nor its players, so a mixer can distribute any number of
+ * rosters at the same time from different threads.
+ *
  * @author Bonino, Francisco Ignacio.
  *
  * @version 0.0.1
@@ -20,18 +22,22 @@ public interface PlayersMixer {
   /**
    * Distributes the players without considering anchorages.
    *
-   * @param teams Teams where to distribute the players.
+   * @param roster Players to distribute, along with the players limit per position and the number of teams.
    *
-   * @return The updated teams with the players distributed without considering anchorages.
+   * @return The players distributed without considering anchorages.
+   *
+   * @throws IllegalArgumentException If the players cannot be distributed.
    */
-  List<Team> withoutAnchorages(List<Team> teams);
+  Distribution withoutAnchorages(Roster roster);
 
   /**
    * Distributes the players considering anchorages.
    *
-   * @param teams Teams where to distribute the players.
+   * @param roster Players to distribute, along with their anchorages, the players limit per position and the number of teams.
+   *
+   * @return The players distributed considering anchorages.
    *
-   * @return The updated teams with the players distributed considering anchorages.
+   * @throws IllegalArgumentException If the players cannot be distributed keeping the anchorages together.
    */
-  List<Team> withAnchorages(List<Team> teams);
+  Distribution withAnchorages(Roster roster);
 }
\ No newline at end of file
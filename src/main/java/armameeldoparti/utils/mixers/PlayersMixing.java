@@ -0,0 +1,154 @@
+package armameeldoparti.utils.mixers;
+
+import armameeldoparti.models.Distribution;
+import armameeldoparti.models.Roster;
+import armameeldoparti.utils.common.Constants;
+
+import java.time.Duration;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Players mixing class.
+ *
+ * <p>Entry point of the mixing core: it chooses the mixer that fits every roster and whether its anchorages must be considered. Since the mixers are
+ * stateless, a single instance of each one is shared by every caller, including the ones running at the same time.
+ *
+ * <p>The rosters that the optimal mixer cannot handle are distributed with the by-skill-points heuristic, which can be improved for as many
+ * milliseconds as the {@code armameeldoparti.mixing.budget} system property says with the anytime mixer.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public final class PlayersMixing {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Fewest players whose optimal search is split among several threads. With fewer, there are so few combinations to check that starting the
+   * threads takes longer than checking them all in one.
+   */
+  private static final int MIN_PLAYERS_PARALLEL_SEARCH = 15;
+
+  private static final long TIME_BUDGET_MILLIS = Long.getLong(Constants.PROPERTY_MIXING_TIME_BUDGET, 0);
+
+  private static final BySkillPointsMixer BY_SKILL_POINTS_MIXER = new BySkillPointsMixer();
+
+  private static final OptimalBySkillPointsMixer OPTIMAL_BY_SKILL_POINTS_MIXER = new OptimalBySkillPointsMixer();
+  private static final OptimalBySkillPointsMixer PARALLEL_OPTIMAL_BY_SKILL_POINTS_MIXER = new OptimalBySkillPointsMixer(true);
+
+  private static final RandomMixer RANDOM_MIXER = new RandomMixer();
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Empty, private constructor.
+   */
+  private PlayersMixing() {
+    // Body not needed
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Distributes the players randomly with a new seed, considering the anchorages of the roster if it has any.
+   *
+   * @param roster Players to distribute.
+   *
+   * @return The players distributed randomly.
+   *
+   * @throws IllegalArgumentException If the anchorages of the roster cannot be distributed.
+   */
+  public static Distribution randomMix(Roster roster) {
+    return randomMix(roster, RandomMixer.newSeed());
+  }
+
+  /**
+   * Distributes the players randomly, considering the anchorages of the roster if it has any. The same roster and seed always lead to the same
+   * distribution.
+   *
+   * @param roster Players to distribute.
+   * @param seed   Seed of the random numbers of the distribution.
+   *
+   * @return The players distributed randomly.
+   *
+   * @throws IllegalArgumentException If the anchorages of the roster cannot be distributed.
+   */
+  public static Distribution randomMix(Roster roster, long seed) {
+    return roster.getAnchorages()
+                 .isEmpty() ? RANDOM_MIXER.withoutAnchorages(roster, seed) : RANDOM_MIXER.withAnchorages(roster, seed);
+  }
+
+  /**
+   * Distributes the players based on their skill points, minimizing the skill points difference between the teams and considering the anchorages
+   * of the roster if it has any.
+   *
+   * <p>With two teams and a roster that the optimal mixer can handle, the distribution is exact and the best distinct distributions found are
+   * returned too, so they can be cycled through. Rosters bigger than the default one are searched in parallel, since the cost of splitting the
+   * search is only worth it there. Otherwise, the scalable by-skill-points heuristic is used, improved within the configured time budget if there is
+   * one, and there are no alternative distributions.
+   *
+   * @param roster Players to distribute.
+   *
+   * @return The distributions found, from best to worst. There is always at least one.
+   *
+   * @throws IllegalArgumentException If the anchorages of the roster cannot be distributed.
+   */
+  public static List<Distribution> bySkillPointsMix(Roster roster) {
+    return bySkillPointsMix(roster, new MixingListener() {});
+  }
+
+  /**
+   * Distributes the players based on their skill points like {@link #bySkillPointsMix(Roster)}, reporting the progress of the optimal search to the
+   * given listener, which can also stop it. The by-skill-points heuristic is fast enough to not report any progress, but its improvement does.
+   *
+   * @param roster   Players to distribute.
+   * @param listener Listener to notify of the distribution progress.
+   *
+   * @return The distributions found, from best to worst. There is always at least one. If the listener stopped the search, they are the best ones
+   *         found until then.
+   *
+   * @throws IllegalArgumentException If the anchorages of the roster cannot be distributed.
+   * @throws CancellationException    If the listener stopped the search before any distribution was found.
+   */
+  public static List<Distribution> bySkillPointsMix(Roster roster, MixingListener listener) {
+    boolean anchorages = !roster.getAnchorages()
+                                .isEmpty();
+
+    if (roster.getTeamsCount() == 2 && roster.getPlayersCount() <= OptimalBySkillPointsMixer.MAX_PLAYERS) {
+      OptimalBySkillPointsMixer mixer = roster.getPlayersCount() >= MIN_PLAYERS_PARALLEL_SEARCH ? PARALLEL_OPTIMAL_BY_SKILL_POINTS_MIXER
+                                                                                              : OPTIMAL_BY_SKILL_POINTS_MIXER;
+
+      return (anchorages ? mixer.rankWithAnchorages(roster, listener) : mixer.rankWithoutAnchorages(roster, listener)).getDistributions();
+    }
+
+    if (TIME_BUDGET_MILLIS > 0) {
+      return List.of(anytimeBySkillPointsMix(roster, Duration.ofMillis(TIME_BUDGET_MILLIS), listener).getDistribution());
+    }
+
+    return List.of(anchorages ? BY_SKILL_POINTS_MIXER.withAnchorages(roster) : BY_SKILL_POINTS_MIXER.withoutAnchorages(roster));
+  }
+
+  /**
+   * Distributes the players based on their skill points, starting from the by-skill-points heuristic result and improving it until the time budget
+   * runs out, and considering the anchorages of the roster if it has any. It works with any roster, regardless of its size or number of teams.
+   *
+   * @param roster     Players to distribute.
+   * @param timeBudget Maximum duration of the distribution.
+   * @param listener   Listener to notify of the distribution progress, which can also stop it.
+   *
+   * @return The best distribution found, along with how its quality evolved over time.
+   *
+   * @throws IllegalArgumentException If the time budget is not positive or the anchorages of the roster cannot be distributed.
+   */
+  public static ImprovedDistribution anytimeBySkillPointsMix(Roster roster, Duration timeBudget, MixingListener listener) {
+    AnytimeBySkillPointsMixer mixer = new AnytimeBySkillPointsMixer(timeBudget);
+
+    return roster.getAnchorages()
+                 .isEmpty() ? mixer.improveWithoutAnchorages(roster, listener) : mixer.improveWithAnchorages(roster, listener);
+  }
+}
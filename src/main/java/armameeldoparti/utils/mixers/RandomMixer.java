@@ -1,22 +1,28 @@
 package armameeldoparti.utils.mixers;
 
+import armameeldoparti.models.Distribution;
 import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
 import armameeldoparti.models.Team;
-import armameeldoparti.models.enums.Error;
 import armameeldoparti.models.enums.Position;
-import armameeldoparti.utils.common.CommonFields;
-import armameeldoparti.utils.common.CommonFunctions;
-import armameeldoparti.utils.common.Constants;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Random distribution class.
  *
+ * <p>Every distribution draws its random numbers from its own generator, created from a seed, so the same roster and seed always lead to the same
+ * distribution and any past distribution can be replayed from its seed. Since the mixer keeps no generator of its own, it can be shared by any
+ * number of threads without contention. The distribution methods without a seed use a new one from {@link #newSeed()}.
+ *
  * @author Bonino, Francisco Ignacio.
  *
  * @version 0.0.1
@@ -25,12 +31,9 @@ import java.util.function.Predicate;
  */
 public class RandomMixer implements PlayersMixer {
 
-  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
-
-  private int randomTeam1;
-  private int randomTeam2;
+  // ---------- Public constants ---------------------------------------------------------------------------------------------------------------------
 
-  private Random randomGenerator;
+  public static final int MAX_ANCHORAGES = 16;
 
   // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
 
@@ -38,240 +41,530 @@ public class RandomMixer implements PlayersMixer {
    * Builds the random distributor.
    */
   public RandomMixer() {
-    randomGenerator = new Random();
+    // Body not needed
   }
 
   // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
 
   /**
-   * Distributes the players randomly without considering anchorages.
+   * Distributes the players randomly without considering anchorages, with a new seed.
    *
-   * <p>Half of the players of each players-set are randomly assigned a team number. The rest of the players are assigned to the opposing team number.
+   * @param roster Players to distribute, along with the players limit per position and the number of teams.
    *
-   * @param teams Teams where to distribute the players.
+   * @return The players distributed randomly without considering anchorages.
    *
-   * @return The updated teams with the players distributed randomly without considering anchorages.
+   * @see #withoutAnchorages(Roster, long)
    */
   @Override
-  public List<Team> withoutAnchorages(List<Team> teams) {
-    shuffleTeamNumbers(teams.size());
-
-    for (Position position : Position.values()) {
-      List<Player> playersAtPosition = new ArrayList<>(CommonFields.getPlayersSets()
-                                                                   .get(position));
-
-      Collections.shuffle(playersAtPosition);
-
-      teams.get(randomTeam1)
-           .getTeamPlayers()
-           .get(position)
-           .addAll(playersAtPosition.subList(0, playersAtPosition.size() / teams.size()));
-    }
-
-    teams.get(randomTeam1)
-         .getTeamPlayers()
-         .values()
-         .stream()
-         .flatMap(List::stream)
-         .forEach(player -> player.setTeamNumber(randomTeam1 + 1));
-
-    CommonFields.getPlayersSets()
-                .values()
-                .stream()
-                .flatMap(List::stream)
-                .filter(player -> player.getTeamNumber() == 0)
-                .forEach(player -> {
-                  teams.get(randomTeam2)
-                       .getTeamPlayers()
-                       .get(player.getPosition())
-                       .add(player);
-
-                  player.setTeamNumber(randomTeam2 + 1);
-                });
-
-    return teams;
+  public Distribution withoutAnchorages(Roster roster) {
+    return withoutAnchorages(roster, newSeed());
   }
 
   /**
-   * Distributes the players randomly considering anchorages.
-   *
-   * <p>First, the anchored players are grouped in different lists by their anchorage number, and they are distributed randomly. If a set of anchored
-   * players cannot be added to one team, it will be added to the other. Then, the players that are not anchored are distributed randomly. They will
-   * be added to a team only if the players per position or the players per team limits are not exceeded.
+   * Distributes the players randomly considering anchorages, with a new seed.
    *
-   * <p>At this point, the anchorages are guaranteed to be possible to distribute by {@link armameeldoparti.controllers.AnchoragesController}, though
-   * there are cases where the order in which the anchorages are distributed may affect the availability of teams for the following anchorages. To
-   * consider this, a boolean variable is used: if there's no room in any team for certain anchorage, then this variable is used to stop the
-   * anchorages distribution, shuffle them and start the distribution again.
+   * @param roster Players to distribute, along with their anchorages, the players limit per position and the number of teams.
    *
-   * @param teams Teams where to distribute the players.
+   * @return The players distributed randomly considering anchorages.
    *
-   * @return The updated teams with the players distributed randomly considering anchorages.
+   * @see #withAnchorages(Roster, long)
    */
   @Override
-  public List<Team> withAnchorages(List<Team> teams) {
-    boolean successfulDistribution = false;
-
-    List<List<Player>> anchorages = CommonFunctions.getAnchorages();
-
-    while (!successfulDistribution) {
-      Collections.shuffle(anchorages);
-
-      for (List<Player> anchorage : anchorages) {
-        int teamNumber = getAvailableTeam(teams, team -> anchorageCanBeAdded(team, anchorage));
+  public Distribution withAnchorages(Roster roster) {
+    return withAnchorages(roster, newSeed());
+  }
 
-        if (teamNumber == -1) {
-          teams.forEach(Team::clear);
+  /**
+   * Distributes the players randomly without considering anchorages.
+   *
+   * <p>The players of each players-set are shuffled and then dealt in equal parts among the teams.
+   *
+   * @param roster Players to distribute, along with the players limit per position and the number of teams.
+   * @param seed   Seed of the random numbers of the distribution.
+   *
+   * @return The players distributed randomly without considering anchorages.
+   */
+  public Distribution withoutAnchorages(Roster roster, long seed) {
+    RandomGenerator randomGenerator = createRandomGenerator(seed);
 
-          successfulDistribution = false;
+    List<Team> teams = roster.createTeams();
 
-          break;
-        }
+    for (Position position : Position.values()) {
+      List<Player> playersAtPosition = new ArrayList<>(roster.getPlayersSets()
+                                                             .get(position));
 
-        for (Player player : anchorage) {
-          player.setTeamNumber(teamNumber + 1);
+      Collections.shuffle(playersAtPosition, randomGenerator);
 
-          teams.get(teamNumber)
-               .getTeamPlayers()
-               .get(player.getPosition())
-               .add(player);
-        }
+      int playersPerTeam = roster.getPlayersLimit(position);
 
-        successfulDistribution = true;
+      for (int teamIndex = 0; teamIndex < teams.size(); teamIndex++) {
+        teams.get(teamIndex)
+             .addPlayers(playersAtPosition.subList(teamIndex * playersPerTeam, (teamIndex + 1) * playersPerTeam));
       }
     }
 
-    // Remaining (not anchored) players without an assigned team
-    CommonFields.getPlayersSets()
-                .values()
-                .stream()
-                .flatMap(List::stream)
-                .filter(player -> player.getTeamNumber() == 0)
-                .forEach(player -> {
-                  int teamNumber = getAvailableTeam(teams, team -> playerCanBeAdded(team, player));
-
-                  // If there's no available team at this point, something went wrong
-                  if (teamNumber == -1) {
-                    CommonFunctions.exitProgram(Error.ERROR_INTERNAL);
-                  }
-
-                  player.setTeamNumber(teamNumber + 1);
-
-                  teams.get(teamNumber)
-                       .getTeamPlayers()
-                       .get(player.getPosition())
-                       .add(player);
-                });
-
-    return teams;
+    return new Distribution(teams);
   }
 
-  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
-
   /**
-   * Randomly shuffles the team numbers.
+   * Distributes the players randomly considering anchorages.
    *
-   * @param range Upper limit (exclusive) for the random number generator.
+   * <p>Every possible distribution that keeps the anchorages together and respects the players limit per position is equally likely to be chosen.
+   * To achieve this without trial and error, the anchorages are assigned to the teams one at a time, each one to a team drawn with a probability
+   * proportional to the number of distributions that can still be completed from there. Then, the teams are completed by randomly dealing the not
+   * anchored players of each position among the missing places.
+   *
+   * <p>The cost of counting the distributions grows quickly with the number of anchorages, but hardly with the number of players or teams, so the
+   * rosters read by the headless modes can have up to {@link #MAX_ANCHORAGES} anchorages.
+   *
+   * @param roster Players to distribute, along with their anchorages, the players limit per position and the number of teams.
+   * @param seed   Seed of the random numbers of the distribution.
+   *
+   * @return The players distributed randomly considering anchorages.
+   *
+   * @throws IllegalArgumentException If the anchorages cannot be distributed among the teams.
+   *
+   * @see AnchoragesDraw
    */
-  private void shuffleTeamNumbers(int range) {
-    randomTeam1 = randomGenerator.nextInt(range);
-    randomTeam2 = 1 - randomTeam1;
+  public Distribution withAnchorages(Roster roster, long seed) {
+    RandomGenerator randomGenerator = createRandomGenerator(seed);
+
+    PackedRoster packedRoster = new PackedRoster(roster);
+
+    List<Team> teams = roster.createTeams();
+    List<List<Player>> anchorages = roster.getAnchorages();
+
+    int[] drawnAnchoragesTeams = new AnchoragesDraw(packedRoster, randomGenerator).draw();
+
+    for (int anchorageIndex = 0; anchorageIndex < anchorages.size(); anchorageIndex++) {
+      teams.get(drawnAnchoragesTeams[anchorageIndex])
+           .addPlayers(anchorages.get(anchorageIndex));
+    }
+
+    completeTeams(teams, packedRoster, randomGenerator);
+
+    return new Distribution(teams);
   }
 
   /**
-   * @param team   Team where the player should be added.
-   * @param player The players to add.
+   * Draws a seed for a new distribution. Every thread draws from its own source, so drawing seeds never blocks.
    *
-   * @return Whether a player can be added to the specified team.
+   * @return A new random seed.
    */
-  private boolean playerCanBeAdded(Team team, Player player) {
-    return !team.isPositionFull(player.getPosition());
+  public static long newSeed() {
+    return ThreadLocalRandom.current()
+                            .nextLong();
   }
 
   /**
-   * Checks if a set of anchored players can be added to a team.
+   * Creates the random numbers generator of a distribution.
    *
-   * <p>First, checks if any of the positions of the anchored players in the destination team is already complete. If not, checks if adding them does
-   * not exceed the number of players allowed per position per team. This is done in order to avoid more than half of the registered players of the
-   * same position remaining on the same team.
+   * <p>The generator is splittable, so bulk distributions can derive independent generators from a single one. Its algorithm is part of its
+   * specification, so a seed leads to the same random numbers in every Java version.
    *
-   * @param team      Team where the anchored players should be added.
-   * @param anchorage List containing the players with the same anchorage number.
+   * @param seed Seed of the random numbers.
    *
-   * @return Whether a set of anchored players can be added to a team.
+   * @return A new random numbers generator.
    */
-  private boolean anchorageCanBeAdded(Team team, List<Player> anchorage) {
-    return !(anchorageOverflowsTeamSize(team, anchorage) || anchorageOverflowsAnyPositionSet(team, anchorage));
+  public static RandomGenerator.SplittableGenerator createRandomGenerator(long seed) {
+    return new SplittableRandom(seed);
   }
 
-  /**
-   * @param team      Team to check if the anchored players can be added.
-   * @param anchorage Anchored players to check.
-   *
-   * @return Whether the number of anchored players to be added to a team would exceed the limit of players per team.
-   */
-  private boolean anchorageOverflowsTeamSize(Team team, List<Player> anchorage) {
-    return team.getPlayersCount() + anchorage.size() > Constants.PLAYERS_PER_TEAM;
-  }
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
 
   /**
-   * @param team      Team to check if the anchored players can be added.
-   * @param anchorage Anchored players to check.
+   * Completes the teams by randomly dealing the not anchored players of each position among the missing places.
    *
-   * @return Whether the number of anchored players to be added to a team would exceed the limit of players per team in any position set.
+   * @param teams           Teams that already have the anchored players.
+   * @param packedRoster    Primitive snapshot of the roster the players belong to.
+   * @param randomGenerator Random numbers generator of the distribution.
    */
-  private boolean anchorageOverflowsAnyPositionSet(Team team, List<Player> anchorage) {
-    return anchorage.stream()
-                    .anyMatch(player -> team.isPositionFull(player.getPosition())
-                                        || anchorageOverflowsPositionSet(team, anchorage, player.getPosition()));
+  private void completeTeams(List<Team> teams, PackedRoster packedRoster, RandomGenerator randomGenerator) {
+    for (Position position : Position.values()) {
+      List<Player> freePlayers = new ArrayList<>();
+
+      for (int player = packedRoster.getPositionStart(position.ordinal()); player < packedRoster.getPositionEnd(position.ordinal()); player++) {
+        if (packedRoster.getAnchorage(player) == PackedRoster.NOT_ANCHORED) {
+          freePlayers.add(packedRoster.getPlayer(player));
+        }
+      }
+
+      Collections.shuffle(freePlayers, randomGenerator);
+
+      int dealtPlayers = 0;
+
+      for (Team team : teams) {
+        int missingPlayers = packedRoster.getPositionLimit(position.ordinal()) - team.getPlayersCount(position);
+
+        team.addPlayers(freePlayers.subList(dealtPlayers, dealtPlayers + missingPlayers));
+
+        dealtPlayers += missingPlayers;
+      }
+    }
   }
 
+  // ---------- Nested classes -----------------------------------------------------------------------------------------------------------------------
+
   /**
-   * @param team      Team to check if the anchored players can be added.
-   * @param anchorage Anchored players to check.
-   * @param position  Anchored players position.
+   * Draw of the teams of the anchorages of a roster, keeping the counts it needs so every distribution uses its own.
+   *
+   * <p>Every team is represented only by its number of anchored players per position, packed in a single key with a mixed radix where every
+   * position is a digit ranging from 0 to the position limit. Since all the teams are interchangeable, the state of the draw after assigning some
+   * anchorages is just the sorted keys of the teams that have any, and the number of distributions that can be completed from every state is
+   * memoized, so it is counted only once no matter how many ways there are to reach it.
    *
-   * @return Whether the number of anchored players to be added to a position set in a team would exceed the limit of players per team for that
-   *         particular position.
+   * <p>The number of ways of completing the teams with the not anchored players is a product of one multinomial coefficient per position, whose
+   * numerator does not depend on the anchorages. The counts are scaled by dividing them by it and by the denominators of the teams without
+   * anchorages, so every anchorage only multiplies them by the ways of choosing the places of its players in its team. This way, they do not grow
+   * with the number of players, and they stay exact as long as there are not too many anchorages.
    */
-  private boolean anchorageOverflowsPositionSet(Team team, List<Player> anchorage, Position position) {
-    return team.getTeamPlayers()
-               .get(position)
-               .size()
-           + anchorage.stream()
-                      .filter(player -> player.getPosition() == position)
-                      .count()
-           > CommonFields.getPlayersLimitPerPosition()
-                         .get(position);
+  private static final class AnchoragesDraw {
+
+    private int teamsCount;
+
+    private int[] anchoragesKeys;
+    private int[] anchoragesOrder;
+    private int[] anchoragesSizes;
+    private int[] positionLimits;
+    private int[] positionRadixes;
+
+    private int[][] anchoragesCounts;
+
+    private List<Map<TeamsState, Double>> memoizedCompletions;
+
+    private RandomGenerator randomGenerator;
+
+    /**
+     * Builds the number of players per position of every anchorage and the order in which they will be assigned.
+     *
+     * <p>The anchorages are assigned from the biggest to the smallest one, since the biggest ones are the most restrictive, and the equal ones are
+     * assigned one after the other, so they lead to fewer different states.
+     *
+     * @param packedRoster    Primitive snapshot of the roster whose anchorages will be drawn.
+     * @param randomGenerator Random numbers generator of the distribution.
+     */
+    private AnchoragesDraw(PackedRoster packedRoster, RandomGenerator randomGenerator) {
+      this.randomGenerator = randomGenerator;
+
+      int anchoragesCount = packedRoster.getAnchoragesCount();
+      int positionsCount = packedRoster.getPositionsCount();
+
+      teamsCount = packedRoster.getTeamsCount();
+      positionLimits = new int[positionsCount];
+      positionRadixes = new int[positionsCount];
+      anchoragesCounts = new int[anchoragesCount][positionsCount];
+      anchoragesKeys = new int[anchoragesCount];
+      anchoragesOrder = new int[anchoragesCount];
+      anchoragesSizes = new int[anchoragesCount];
+      memoizedCompletions = new ArrayList<>();
+
+      int radix = 1;
+
+      for (int positionIndex = 0; positionIndex < positionsCount; positionIndex++) {
+        positionLimits[positionIndex] = packedRoster.getPositionLimit(positionIndex);
+        positionRadixes[positionIndex] = radix;
+        radix *= positionLimits[positionIndex] + 1;
+      }
+
+      for (int player = 0; player < packedRoster.getPlayersCount(); player++) {
+        int anchorageIndex = packedRoster.getAnchorage(player);
+
+        if (anchorageIndex != PackedRoster.NOT_ANCHORED) {
+          anchoragesCounts[anchorageIndex][packedRoster.getPosition(player)]++;
+          anchoragesKeys[anchorageIndex] += positionRadixes[packedRoster.getPosition(player)];
+          anchoragesSizes[anchorageIndex]++;
+        }
+      }
+
+      for (int anchorageIndex = 0; anchorageIndex < anchoragesCount; anchorageIndex++) {
+        int orderIndex = anchorageIndex;
+
+        while (orderIndex > 0 && precedes(anchorageIndex, anchoragesOrder[orderIndex - 1])) {
+          anchoragesOrder[orderIndex] = anchoragesOrder[orderIndex - 1];
+          orderIndex--;
+        }
+
+        anchoragesOrder[orderIndex] = anchorageIndex;
+
+        memoizedCompletions.add(new HashMap<>());
+      }
+    }
+
+    /**
+     * Assigns the anchorages to the teams one at a time, in the assignment order.
+     *
+     * <p>Every anchorage goes to a kind of team (the teams without anchorages, or the ones with a given number of anchored players per position)
+     * drawn with a probability proportional to the number of teams of that kind, the ways of placing the anchorage in one of them, and the number of
+     * distributions that can be completed afterwards. Then, one of the teams of that kind is chosen uniformly.
+     *
+     * @return The drawn team index of every anchorage.
+     *
+     * @throws IllegalArgumentException If there is no feasible assignment of the anchorages, or if there are too many to count them.
+     */
+    private int[] draw() {
+      int[] drawnAnchoragesTeams = new int[anchoragesCounts.length];
+      int[] teamsKeys = new int[teamsCount];
+
+      TeamsState state = new TeamsState(new int[0]);
+
+      double completions = countCompletions(0, state);
+
+      if (completions == 0) {
+        throw new IllegalArgumentException("Los anclajes no se pueden distribuir entre los equipos");
+      }
+
+      if (Double.isInfinite(completions)) {
+        throw new IllegalArgumentException("Hay demasiados anclajes para distribuirlos al azar");
+      }
+
+      for (int level = 0; level < anchoragesCounts.length; level++) {
+        int anchorageIndex = anchoragesOrder[level];
+        int drawnTeamKey = 0;
+        int drawnTeamsOfKind = 0;
+
+        double completionsLeft = randomGenerator.nextDouble() * completions;
+
+        TeamsState drawnState = null;
+
+        for (int stateIndex = -1; stateIndex < state.getTeamsCount() && completionsLeft >= 0; stateIndex++) {
+          int teamsOfKind = countTeamsOfKind(state, stateIndex);
+          int teamKey = state.getTeamKey(stateIndex);
+
+          if (teamsOfKind > 0 && anchorageFits(teamKey, anchorageIndex)) {
+            TeamsState nextState = state.withTeamKey(stateIndex, teamKey + anchoragesKeys[anchorageIndex]);
+
+            double nextCompletions = teamsOfKind * countPlacements(teamKey, anchorageIndex) * countCompletions(level + 1, nextState);
+
+            if (nextCompletions > 0) {
+              // The last possible kind of team is kept in case the rounding errors prevent the drawn amount from running out
+              drawnTeamKey = teamKey;
+              drawnTeamsOfKind = teamsOfKind;
+              drawnState = nextState;
+              completionsLeft -= nextCompletions;
+            }
+          }
+        }
+
+        int drawnTeam = chooseTeam(teamsKeys, drawnTeamKey, randomGenerator.nextInt(drawnTeamsOfKind));
+
+        drawnAnchoragesTeams[anchorageIndex] = drawnTeam;
+        teamsKeys[drawnTeam] += anchoragesKeys[anchorageIndex];
+        state = drawnState;
+        completions = countCompletions(level + 1, state);
+      }
+
+      return drawnAnchoragesTeams;
+    }
+
+    /**
+     * Recursively counts the distributions that can be completed from a state, starting from the specified anchorage in the assignment order.
+     *
+     * @param level Position of the anchorage to assign in the assignment order.
+     * @param state Keys of the teams that already have anchorages.
+     *
+     * @return The scaled number of distributions that can be completed from the state.
+     */
+    private double countCompletions(int level, TeamsState state) {
+      if (level == anchoragesCounts.length) {
+        return 1;
+      }
+
+      Double memoizedCount = memoizedCompletions.get(level)
+                                                .get(state);
+
+      if (memoizedCount != null) {
+        return memoizedCount;
+      }
+
+      int anchorageIndex = anchoragesOrder[level];
+
+      double completions = 0;
+
+      for (int stateIndex = -1; stateIndex < state.getTeamsCount(); stateIndex++) {
+        int teamsOfKind = countTeamsOfKind(state, stateIndex);
+        int teamKey = state.getTeamKey(stateIndex);
+
+        if (teamsOfKind > 0 && anchorageFits(teamKey, anchorageIndex)) {
+          completions += teamsOfKind * countPlacements(teamKey, anchorageIndex)
+                         * countCompletions(level + 1, state.withTeamKey(stateIndex, teamKey + anchoragesKeys[anchorageIndex]));
+        }
+      }
+
+      memoizedCompletions.get(level)
+                         .put(state, completions);
+
+      return completions;
+    }
+
+    /**
+     * Counts the teams of the same kind as the one in the given place of a state, only once for every kind.
+     *
+     * @param state      Keys of the teams that already have anchorages.
+     * @param stateIndex Place of the team in the state, or -1 for the teams without anchorages.
+     *
+     * @return The number of teams of the kind, or 0 if the kind was already counted in a previous place.
+     */
+    private int countTeamsOfKind(TeamsState state, int stateIndex) {
+      if (stateIndex == -1) {
+        return teamsCount - state.getTeamsCount();
+      }
+
+      if (stateIndex > 0 && state.getTeamKey(stateIndex - 1) == state.getTeamKey(stateIndex)) {
+        return 0;
+      }
+
+      int teamsOfKind = 1;
+
+      while (stateIndex + teamsOfKind < state.getTeamsCount() && state.getTeamKey(stateIndex + teamsOfKind) == state.getTeamKey(stateIndex)) {
+        teamsOfKind++;
+      }
+
+      return teamsOfKind;
+    }
+
+    /**
+     * @param teamsKeys Key of every team.
+     * @param teamKey   Key of the kind of team to choose.
+     * @param rank      Rank of the team to choose among the ones of its kind.
+     *
+     * @return The index of the team with the given rank among the ones of the given kind.
+     */
+    private int chooseTeam(int[] teamsKeys, int teamKey, int rank) {
+      int teamIndex = 0;
+
+      while (teamsKeys[teamIndex] != teamKey || rank-- > 0) {
+        teamIndex++;
+      }
+
+      return teamIndex;
+    }
+
+    /**
+     * @param teamKey        Key of the team to check.
+     * @param anchorageIndex Index of the anchorage to check.
+     *
+     * @return Whether the anchorage can be added to the team without exceeding the players limit of any position.
+     */
+    private boolean anchorageFits(int teamKey, int anchorageIndex) {
+      for (int positionIndex = 0; positionIndex < positionLimits.length; positionIndex++) {
+        if (getTeamCount(teamKey, positionIndex) + anchoragesCounts[anchorageIndex][positionIndex] > positionLimits[positionIndex]) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    /**
+     * @param teamKey        Key of the team where the anchorage is placed.
+     * @param anchorageIndex Index of the anchorage.
+     *
+     * @return The ways of choosing, in order, the places of the anchored players among the free places of every position in the team.
+     */
+    private double countPlacements(int teamKey, int anchorageIndex) {
+      double placements = 1;
+
+      for (int positionIndex = 0; positionIndex < positionLimits.length; positionIndex++) {
+        int freePlaces = positionLimits[positionIndex] - getTeamCount(teamKey, positionIndex);
+
+        for (int anchoredPlayer = 0; anchoredPlayer < anchoragesCounts[anchorageIndex][positionIndex]; anchoredPlayer++) {
+          placements *= freePlaces--;
+        }
+      }
+
+      return placements;
+    }
+
+    /**
+     * @param teamKey       Key of the team.
+     * @param positionIndex Ordinal of the position.
+     *
+     * @return The number of anchored players of the position in the team.
+     */
+    private int getTeamCount(int teamKey, int positionIndex) {
+      return teamKey / positionRadixes[positionIndex] % (positionLimits[positionIndex] + 1);
+    }
+
+    /**
+     * @param anchorageIndex Index of the anchorage to check.
+     * @param otherIndex     Index of the anchorage to compare it with.
+     *
+     * @return Whether the anchorage must be assigned before the other one: if it is bigger, or if it is as big and has a greater key.
+     */
+    private boolean precedes(int anchorageIndex, int otherIndex) {
+      int sizeDifference = anchoragesSizes[anchorageIndex] - anchoragesSizes[otherIndex];
+
+      return sizeDifference > 0 || sizeDifference == 0 && anchoragesKeys[anchorageIndex] > anchoragesKeys[otherIndex];
+    }
   }
 
   /**
-   * Checks which team a given player can be added to.
-   *
-   * @param teams               The possible teams where to add the player.
-   * @param validationPredicate The predicate that will validate if the player can be added to a team, or not.
-   *
-   * @return The only available team index, a random team index if the player can be added in every team, or -1 if there's no available team for the
-   *         player.
+   * Sorted keys of the teams that have anchorages during an anchorages draw, used to identify its memoized counts.
    */
-  private int getAvailableTeam(List<Team> teams, Predicate<Team> validationPredicate) {
-    shuffleTeamNumbers(teams.size());
+  private static final class TeamsState {
 
-    boolean isRandomTeam1Available = validationPredicate.test(teams.get(randomTeam1));
-    boolean isRandomTeam2Available = validationPredicate.test(teams.get(randomTeam2));
+    private int[] teamsKeys;
 
-    if (isRandomTeam1Available && isRandomTeam2Available) {
-      return randomGenerator.nextInt(teams.size());
+    /**
+     * Builds a state with the given keys.
+     *
+     * @param teamsKeys Key of every team that has anchorages, in increasing order.
+     */
+    private TeamsState(int[] teamsKeys) {
+      this.teamsKeys = teamsKeys;
     }
 
-    if (isRandomTeam1Available) {
-      return randomTeam1;
+    /**
+     * @param stateIndex Place of the team to replace, or -1 to add a team that had no anchorages.
+     * @param newTeamKey Key of the team after adding an anchorage.
+     *
+     * @return A new state with the given team replaced, keeping the keys sorted.
+     */
+    private TeamsState withTeamKey(int stateIndex, int newTeamKey) {
+      int[] newTeamsKeys = Arrays.copyOf(teamsKeys, teamsKeys.length + (stateIndex == -1 ? 1 : 0));
+
+      int keyIndex = stateIndex == -1 ? teamsKeys.length : stateIndex;
+
+      // The key only grows, so it is moved forward until the keys are sorted again
+      while (keyIndex < newTeamsKeys.length - 1 && newTeamsKeys[keyIndex + 1] < newTeamKey) {
+        newTeamsKeys[keyIndex] = newTeamsKeys[keyIndex + 1];
+        keyIndex++;
+      }
+
+      while (stateIndex == -1 && keyIndex > 0 && newTeamsKeys[keyIndex - 1] > newTeamKey) {
+        newTeamsKeys[keyIndex] = newTeamsKeys[keyIndex - 1];
+        keyIndex--;
+      }
+
+      newTeamsKeys[keyIndex] = newTeamKey;
+
+      return new TeamsState(newTeamsKeys);
+    }
+
+    /**
+     * @param stateIndex Place of the team in the state, or -1 for the teams without anchorages.
+     *
+     * @return The key of the team.
+     */
+    private int getTeamKey(int stateIndex) {
+      return stateIndex == -1 ? 0 : teamsKeys[stateIndex];
+    }
+
+    /**
+     * @return The number of teams that have anchorages.
+     */
+    private int getTeamsCount() {
+      return teamsKeys.length;
     }
 
-    if (isRandomTeam2Available) {
-      return randomTeam2;
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof TeamsState otherState && Arrays.equals(teamsKeys, otherState.teamsKeys);
     }
 
-    return -1;
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(teamsKeys);
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package armameeldoparti.utils.mixers;
+
+import armameeldoparti.models.Distribution;
+
+import java.util.List;
+
+/**
+ * Ranked distributions class.
+ *
+ * <p>Immutable result of a search of {@link OptimalBySkillPointsMixer}: the best distinct distributions it found, from best to worst, along with the
+ * statistics of the search.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public class RankedDistributions {
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private double searchCoverage;
+
+  private long prunedNodes;
+  private long visitedNodes;
+
+  private List<Distribution> distributions;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds the result of a search.
+   *
+   * @param distributions  Distributions found, from best to worst.
+   * @param visitedNodes   Number of branches visited by the search.
+   * @param prunedNodes    Number of branches discarded by their bound.
+   * @param searchCoverage Fraction of the search space resolved, either visited or discarded by its bound.
+   */
+  public RankedDistributions(List<Distribution> distributions, long visitedNodes, long prunedNodes, double searchCoverage) {
+    this.distributions = List.copyOf(distributions);
+    this.visitedNodes = visitedNodes;
+    this.prunedNodes = prunedNodes;
+    this.searchCoverage = searchCoverage;
+  }
+
+  // ---------- Getters ------------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @return The fraction of the search space resolved, either visited or discarded by its bound. It is lower than 1 only when the pool was filled
+   *         with perfectly balanced distributions before resolving the rest, or when the search was stopped by its listener.
+   */
+  public double getSearchCoverage() {
+    return searchCoverage;
+  }
+
+  public long getPrunedNodes() {
+    return prunedNodes;
+  }
+
+  public long getVisitedNodes() {
+    return visitedNodes;
+  }
+
+  public List<Distribution> getDistributions() {
+    return distributions;
+  }
+}
@@ -0,0 +1,386 @@
+package armameeldoparti.utils.validators;
+
+import armameeldoparti.models.enums.Position;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Anchorages feasibility validator class.
+ *
+ * <p>Checks whether the existing anchorages can be distributed among the teams without exceeding the players limit per position in any of them.
+ * Every anchorage is represented only by its number of players per position, and every team by its number of players per position, so the search
+ * works over small count vectors: adding an anchorage to a team and undoing it are a few additions, and no objects are created while searching.
+ *
+ * <p>The anchorages are kept in the validator as they are made or deleted, so they are never gathered again from the players sets. The states that
+ * are known to have no solution are memoized, and the result is cached until the anchorages change, so the feasibility can be checked as often as
+ * needed (for example, every time the user modifies the selection of players to anchor).
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+public class AnchoragesValidator {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final int INITIAL_ANCHORAGES_CAPACITY = 8;
+
+  private static final long MAX_MEMOIZED_STATES = 1L << 24;
+
+  // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
+
+  private boolean feasible;
+  private boolean feasibleAnchoragesUpToDate;
+  private boolean memoizationEnabled;
+  private boolean upToDate;
+
+  private boolean[] feasibleAnchorages;
+
+  private int anchoragesCount;
+  private int teamsCount;
+
+  private long statesPerLevel;
+
+  private int[] anchorageRadixes;
+  private int[] anchoragesSearchOrder;
+  private int[] positionLimits;
+  private int[] teamsPlayersCount;
+
+  private int[][] anchoragesCounts;
+  private int[][] teamsCounts;
+
+  private long[][] stateRadixes;
+
+  private BitSet failedStates;
+
+  // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Builds an anchorages validator without anchorages.
+   *
+   * @param playersLimitPerPosition Number of players per position that every team must have.
+   * @param teamsCount              Number of teams among which the anchorages must be distributed.
+   */
+  public AnchoragesValidator(Map<Position, Integer> playersLimitPerPosition, int teamsCount) {
+    Position[] positions = Position.values();
+
+    this.teamsCount = teamsCount;
+
+    positionLimits = new int[positions.length];
+
+    for (Position position : positions) {
+      positionLimits[position.ordinal()] = playersLimitPerPosition.get(position);
+    }
+
+    anchoragesCounts = new int[INITIAL_ANCHORAGES_CAPACITY][];
+    anchoragesSearchOrder = new int[INITIAL_ANCHORAGES_CAPACITY];
+    teamsCounts = new int[teamsCount][positions.length];
+    teamsPlayersCount = new int[teamsCount];
+    failedStates = new BitSet();
+
+    buildStateRadixes();
+    buildAnchorageRadixes();
+  }
+
+  // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Adds an anchorage after the existing ones.
+   *
+   * @param countsPerPosition Number of anchored players per position, indexed by the Position enum ordinals.
+   */
+  public void addAnchorage(int[] countsPerPosition) {
+    if (anchoragesCount == anchoragesCounts.length) {
+      anchoragesCounts = Arrays.copyOf(anchoragesCounts, anchoragesCount * 2);
+      anchoragesSearchOrder = Arrays.copyOf(anchoragesSearchOrder, anchoragesCount * 2);
+    }
+
+    anchoragesCounts[anchoragesCount++] = countsPerPosition.clone();
+
+    upToDate = false;
+    feasibleAnchoragesUpToDate = false;
+  }
+
+  /**
+   * Removes an anchorage, shifting the following ones one place back, just like the anchorage numbers do when an anchorage is deleted.
+   *
+   * @param anchorageIndex Index of the anchorage to remove (its anchorage number minus one).
+   */
+  public void removeAnchorage(int anchorageIndex) {
+    System.arraycopy(anchoragesCounts, anchorageIndex + 1, anchoragesCounts, anchorageIndex, anchoragesCount - anchorageIndex - 1);
+
+    anchoragesCounts[--anchoragesCount] = null;
+
+    upToDate = false;
+    feasibleAnchoragesUpToDate = false;
+  }
+
+  /**
+   * @return Whether the existing anchorages can be distributed among the teams without exceeding the players limit per position in any of them.
+   */
+  public boolean isFeasible() {
+    if (!upToDate) {
+      feasible = search();
+      upToDate = true;
+    }
+
+    return feasible;
+  }
+
+  /**
+   * Checks whether the existing anchorages would still be possible to distribute if a new anchorage was added, without actually adding it.
+   *
+   * @param countsPerPosition Number of players per position of the new anchorage, indexed by the Position enum ordinals.
+   *
+   * @return Whether the existing anchorages along with the new one can be distributed among the teams.
+   */
+  public boolean isFeasibleWith(int[] countsPerPosition) {
+    boolean previouslyUpToDate = upToDate;
+    boolean previouslyFeasibleAnchoragesUpToDate = feasibleAnchoragesUpToDate;
+
+    addAnchorage(countsPerPosition);
+
+    boolean feasibleWithAnchorage = search();
+
+    removeAnchorage(anchoragesCount - 1);
+
+    upToDate = previouslyUpToDate;
+    feasibleAnchoragesUpToDate = previouslyFeasibleAnchoragesUpToDate;
+
+    return feasibleWithAnchorage;
+  }
+
+  /**
+   * Checks whether a new anchorage that is being built could include one more player of the given position, keeping the existing anchorages along
+   * with the new one possible to distribute.
+   *
+   * <p>Every possible new anchorage is checked only once after the existing anchorages change, so this check takes constant time and can be done for
+   * every position each time the user modifies the selection of players to anchor.
+   *
+   * @param countsPerPosition Number of players per position already selected for the new anchorage, indexed by the Position enum ordinals.
+   * @param positionIndex     Ordinal of the position of the player to add.
+   *
+   * @return Whether the new anchorage could include one more player of the given position.
+   */
+  public boolean canBeExtended(int[] countsPerPosition, int positionIndex) {
+    if (countsPerPosition[positionIndex] == positionLimits[positionIndex]) {
+      return false;
+    }
+
+    if (!feasibleAnchoragesUpToDate) {
+      buildFeasibleAnchorages();
+
+      feasibleAnchoragesUpToDate = true;
+    }
+
+    int anchorageIndex = anchorageRadixes[positionIndex];
+
+    for (int index = 0; index < positionLimits.length; index++) {
+      anchorageIndex += countsPerPosition[index] * anchorageRadixes[index];
+    }
+
+    return feasibleAnchorages[anchorageIndex];
+  }
+
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Prepares and runs the search over the existing anchorages.
+   *
+   * <p>The anchorages are explored from the biggest to the smallest one, since the biggest ones are the most restrictive.
+   *
+   * @return Whether the existing anchorages can be distributed among the teams.
+   */
+  private boolean search() {
+    for (int anchorageIndex = 0; anchorageIndex < anchoragesCount; anchorageIndex++) {
+      int orderIndex = anchorageIndex;
+
+      while (orderIndex > 0 && getAnchorageSize(anchoragesSearchOrder[orderIndex - 1]) < getAnchorageSize(anchorageIndex)) {
+        anchoragesSearchOrder[orderIndex] = anchoragesSearchOrder[orderIndex - 1];
+        orderIndex--;
+      }
+
+      anchoragesSearchOrder[orderIndex] = anchorageIndex;
+    }
+
+    memoizationEnabled = statesPerLevel * (anchoragesCount + 1) <= MAX_MEMOIZED_STATES;
+
+    failedStates.clear();
+
+    return search(0, 0);
+  }
+
+  /**
+   * Recursively tries to add every anchorage to some team, starting from the specified one in the search order.
+   *
+   * <p>Since empty teams are interchangeable, an anchorage is only tried in the first empty team. Every state from which no solution was found is
+   * memoized, so it is not explored again when it is reached through a different path.
+   *
+   * @param level    Position of the anchorage to add in the search order.
+   * @param stateKey Identifier of the current number of players per position of the teams.
+   *
+   * @return Whether the remaining anchorages can be added to the teams.
+   */
+  private boolean search(int level, long stateKey) {
+    if (level == anchoragesCount) {
+      return true;
+    }
+
+    int memoizationIndex = (int) (level * statesPerLevel + stateKey);
+
+    if (memoizationEnabled && failedStates.get(memoizationIndex)) {
+      return false;
+    }
+
+    int[] anchorage = anchoragesCounts[anchoragesSearchOrder[level]];
+
+    boolean emptyTeamTried = false;
+
+    for (int teamIndex = 0; teamIndex < teamsCount; teamIndex++) {
+      if (teamsPlayersCount[teamIndex] == 0) {
+        if (emptyTeamTried) {
+          continue;
+        }
+
+        emptyTeamTried = true;
+      }
+
+      if (anchorageFits(teamIndex, anchorage)) {
+        long nextStateKey = moveAnchorage(teamIndex, anchorage, 1, stateKey);
+
+        boolean found = search(level + 1, nextStateKey);
+
+        moveAnchorage(teamIndex, anchorage, -1, nextStateKey);
+
+        if (found) {
+          return true;
+        }
+      }
+    }
+
+    if (memoizationEnabled) {
+      failedStates.set(memoizationIndex);
+    }
+
+    return false;
+  }
+
+  /**
+   * @param teamIndex Index of the team to check.
+   * @param anchorage Number of players per position of the anchorage.
+   *
+   * @return Whether the anchorage can be added to the team without exceeding the players limit of any position.
+   */
+  private boolean anchorageFits(int teamIndex, int[] anchorage) {
+    for (int positionIndex = 0; positionIndex < positionLimits.length; positionIndex++) {
+      if (teamsCounts[teamIndex][positionIndex] + anchorage[positionIndex] > positionLimits[positionIndex]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Adds an anchorage to a team, or undoes it.
+   *
+   * @param teamIndex Index of the team.
+   * @param anchorage Number of players per position of the anchorage.
+   * @param direction 1 to add the anchorage, -1 to undo it.
+   * @param stateKey  Identifier of the current state.
+   *
+   * @return The identifier of the resulting state.
+   */
+  private long moveAnchorage(int teamIndex, int[] anchorage, int direction, long stateKey) {
+    for (int positionIndex = 0; positionIndex < positionLimits.length; positionIndex++) {
+      teamsCounts[teamIndex][positionIndex] += direction * anchorage[positionIndex];
+      teamsPlayersCount[teamIndex] += direction * anchorage[positionIndex];
+      stateKey += direction * anchorage[positionIndex] * stateRadixes[teamIndex][positionIndex];
+    }
+
+    return stateKey;
+  }
+
+  /**
+   * Builds the mixed radix used to identify the states, where every team and position is a digit ranging from 0 to the position limit.
+   *
+   * <p>The players of the last team are not part of the identifier, since they can be deduced from the anchorages already added and the rest of the
+   * teams.
+   */
+  private void buildStateRadixes() {
+    stateRadixes = new long[teamsCount][positionLimits.length];
+    statesPerLevel = 1;
+
+    for (int teamIndex = 0; teamIndex < teamsCount - 1; teamIndex++) {
+      for (int positionIndex = 0; positionIndex < positionLimits.length; positionIndex++) {
+        stateRadixes[teamIndex][positionIndex] = statesPerLevel;
+        statesPerLevel = Math.min(statesPerLevel * (positionLimits[positionIndex] + 1), MAX_MEMOIZED_STATES + 1);
+      }
+    }
+  }
+
+  /**
+   * Builds the mixed radix used to index every possible new anchorage, where every position is a digit ranging from 0 to the position limit.
+   */
+  private void buildAnchorageRadixes() {
+    anchorageRadixes = new int[positionLimits.length];
+
+    int anchoragesCombinations = 1;
+
+    for (int positionIndex = 0; positionIndex < positionLimits.length; positionIndex++) {
+      anchorageRadixes[positionIndex] = anchoragesCombinations;
+      anchoragesCombinations *= positionLimits[positionIndex] + 1;
+    }
+
+    feasibleAnchorages = new boolean[anchoragesCombinations];
+  }
+
+  /**
+   * Checks, for every possible new anchorage, whether it can be distributed along with the existing ones.
+   *
+   * <p>The new anchorages are visited in increasing index order, so every anchorage with one player less in some position was already checked. If any
+   * of those is not feasible, then neither is the current one, and no search is needed.
+   */
+  private void buildFeasibleAnchorages() {
+    int[] candidate = new int[positionLimits.length];
+
+    for (int anchorageIndex = 0; anchorageIndex < feasibleAnchorages.length; anchorageIndex++) {
+      boolean feasibleCandidate = true;
+
+      for (int positionIndex = 0; positionIndex < positionLimits.length; positionIndex++) {
+        candidate[positionIndex] = anchorageIndex / anchorageRadixes[positionIndex] % (positionLimits[positionIndex] + 1);
+
+        if (candidate[positionIndex] > 0 && !feasibleAnchorages[anchorageIndex - anchorageRadixes[positionIndex]]) {
+          feasibleCandidate = false;
+        }
+      }
+
+      feasibleAnchorages[anchorageIndex] = feasibleCandidate && isFeasibleWith(candidate);
+    }
+  }
+
+  /**
+   * @param anchorageIndex Index of the anchorage.
+   *
+   * @return The number of players in the anchorage.
+   */
+  private int getAnchorageSize(int anchorageIndex) {
+    int anchorageSize = 0;
+
+    for (int count : anchoragesCounts[anchorageIndex]) {
+      anchorageSize += count;
+    }
+
+    return anchorageSize;
+  }
+
+  // ---------- Getters ------------------------------------------------------------------------------------------------------------------------------
+
+  public int getAnchoragesCount() {
+    return anchoragesCount;
+  }
+}
@@ -44,7 +44,6 @@ public class NamesInputView extends View {
 
   // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
 
-  private static final int TEXT_AREA_ROWS = 14;
   private static final int TEXT_AREA_COLUMNS = 9;
 
   // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
@@ -129,7 +128,8 @@ public class NamesInputView extends View {
    * Adds the read-only text area where the entered player names will be displayed in real time.
    */
   private void addTextArea() {
-    setTextArea(new CustomTextArea(TEXT_AREA_ROWS, TEXT_AREA_COLUMNS));
+    setTextArea(new CustomTextArea(CommonFields.getTeamFormat()
+                                               .getPlayersPerTeam() * CommonFields.getTeamsCount(), TEXT_AREA_COLUMNS));
 
     rightPanel.add(new CustomScrollPane(textArea), CommonFunctions.buildMigLayoutConstraints(Constants.MIG_LAYOUT_PUSH,
                                                                                              Constants.MIG_LAYOUT_GROW,
@@ -152,7 +152,7 @@ public class NamesInputView extends View {
     for (Position position : Position.values()) {
       textFieldsMap.get(position)
                    .addAll(IntStream.range(0, CommonFields.getPlayersLimitPerPosition()
-                                                          .get(position) * 2)
+                                                          .get(position) * CommonFields.getTeamsCount())
                                     .mapToObj(_ -> new CustomTextField())
                                     .toList());
     }
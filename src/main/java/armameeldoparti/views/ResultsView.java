@@ -6,6 +6,8 @@ import armameeldoparti.utils.common.Constants;
 import armameeldoparti.utils.common.custom.graphical.CustomButton;
 
 import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JProgressBar;
 import javax.swing.JTable;
 
 /**
@@ -22,8 +24,13 @@ public class ResultsView extends View {
   // ---------- Private fields -----------------------------------------------------------------------------------------------------------------------
 
   private JButton backButton;
+  private JButton cancelButton;
   private JButton remixButton;
 
+  private JLabel seedLabel;
+
+  private JProgressBar progressBar;
+
   private JTable table;
 
   // ---------- Constructor --------------------------------------------------------------------------------------------------------------------------
@@ -35,28 +42,42 @@ public class ResultsView extends View {
     super(getUpdatedFrameTitle(), Constants.MIG_LAYOUT_WRAP);
 
     setBackButton(new CustomButton("Atrás", Constants.ROUNDED_BORDER_ARC_GENERAL));
+    setCancelButton(new CustomButton("Detener", Constants.ROUNDED_BORDER_ARC_GENERAL));
+    setProgressBar(new JProgressBar(0, Constants.PROGRESS_BAR_MAX));
+    setSeedLabel(new JLabel());
     setRemixButton(new CustomButton("Redistribuir", Constants.ROUNDED_BORDER_ARC_GENERAL));
   }
 
   // ---------- Public methods -----------------------------------------------------------------------------------------------------------------------
 
+  /**
+   * Builds the view components. It is called only once, since the view is reused for every distribution.
+   */
   @Override
   public void initializeInterface() {
-    setFrameTitle(getUpdatedFrameTitle());
-    setTitle(frameTitle);
     addTable();
+    addSeedLabel();
+    addProgressBar();
     addButtons();
     add(masterPanel);
   }
 
+  /**
+   * Updates the frame title based on the chosen distribution and the anchorages option.
+   */
+  public void updateFrameTitle() {
+    setFrameTitle(getUpdatedFrameTitle());
+    setTitle(frameTitle);
+  }
+
   // ---------- Protected methods --------------------------------------------------------------------------------------------------------------------
 
   @Override
   protected void addButtons() {
-    if (CommonFields.getDistribution() == Constants.MIX_RANDOM) {
-      masterPanel.add(remixButton, Constants.MIG_LAYOUT_GROWX);
-    }
+    cancelButton.setVisible(false);
 
+    masterPanel.add(cancelButton, CommonFunctions.buildMigLayoutConstraints(Constants.MIG_LAYOUT_GROWX, Constants.MIG_LAYOUT_HIDEMODE));
+    masterPanel.add(remixButton, Constants.MIG_LAYOUT_GROWX);
     masterPanel.add(backButton, Constants.MIG_LAYOUT_GROWX);
   }
 
@@ -73,6 +94,29 @@ public class ResultsView extends View {
                        CommonFields.isAnchoragesEnabled() ? "Con anclajes" : "Sin anclajes");
   }
 
+  /**
+   * Adds the random distribution seed label in the view panel. It is hidden, without taking any space, unless the players are distributed randomly.
+   */
+  private void addSeedLabel() {
+    seedLabel.setVisible(false);
+
+    masterPanel.add(seedLabel, CommonFunctions.buildMigLayoutConstraints(Constants.MIG_LAYOUT_SPAN,
+                                                                         Constants.MIG_LAYOUT_CENTER,
+                                                                         Constants.MIG_LAYOUT_HIDEMODE));
+  }
+
+  /**
+   * Adds the mixing progress bar in the view panel. It is hidden, without taking any space, while no distribution is running.
+   */
+  private void addProgressBar() {
+    progressBar.setStringPainted(true);
+    progressBar.setVisible(false);
+
+    masterPanel.add(progressBar, CommonFunctions.buildMigLayoutConstraints(Constants.MIG_LAYOUT_GROWX,
+                                                                           Constants.MIG_LAYOUT_SPAN,
+                                                                           Constants.MIG_LAYOUT_HIDEMODE));
+  }
+
   /**
    * Adds the results table in the view panel.
    */
@@ -95,10 +139,22 @@ public class ResultsView extends View {
     return backButton;
   }
 
+  public JButton getCancelButton() {
+    return cancelButton;
+  }
+
   public JButton getRemixButton() {
     return remixButton;
   }
 
+  public JLabel getSeedLabel() {
+    return seedLabel;
+  }
+
+  public JProgressBar getProgressBar() {
+    return progressBar;
+  }
+
   public JTable getTable() {
     return table;
   }
@@ -109,10 +165,22 @@ public class ResultsView extends View {
     this.backButton = backButton;
   }
 
+  public void setCancelButton(JButton cancelButton) {
+    this.cancelButton = cancelButton;
+  }
+
   public void setRemixButton(JButton remixButton) {
     this.remixButton = remixButton;
   }
 
+  public void setSeedLabel(JLabel seedLabel) {
+    this.seedLabel = seedLabel;
+  }
+
+  public void setProgressBar(JProgressBar progressBar) {
+    this.progressBar = progressBar;
+  }
+
   public void setTable(JTable table) {
     this.table = table;
   }
@@ -0,0 +1,58 @@
+package armameeldoparti.headless;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JSON cursor tests.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+class JsonCursorTest {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final int DEEP_NESTING = 100_000;
+
+  // ---------- Tests --------------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Skipping a value must leave the cursor right after it, whatever values it has inside.
+   */
+  @Test
+  void skipValueSkipsNestedValues() {
+    JsonCursor cursor = new JsonCursor("[{\"a\": [1, -2.5e3, {}], \"b\": {\"c\": [true, false, null, \"}\\\"]\"]}}, [], \"x\"] 7");
+
+    cursor.skipValue();
+
+    assertEquals(7, cursor.nextInt());
+  }
+
+  /**
+   * Values nested deeper than the stack allows in a recursive parser must be skipped, or rejected as invalid when they are not closed.
+   */
+  @Test
+  void skipValueHandlesDeepNesting() {
+    JsonCursor cursor = new JsonCursor("[".repeat(DEEP_NESTING) + "]".repeat(DEEP_NESTING));
+
+    cursor.skipValue();
+    cursor.expectEnd();
+
+    assertThrows(IllegalArgumentException.class, () -> new JsonCursor("[{\"a\":".repeat(DEEP_NESTING)).skipValue());
+  }
+
+  /**
+   * Values with a misplaced closing character must be rejected.
+   */
+  @Test
+  void skipValueRejectsMismatchedClosings() {
+    assertThrows(IllegalArgumentException.class, () -> new JsonCursor("[{\"a\": 1]}").skipValue());
+    assertThrows(IllegalArgumentException.class, () -> new JsonCursor("{\"a\" 1}").skipValue());
+  }
+}
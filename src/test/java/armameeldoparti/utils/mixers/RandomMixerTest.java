@@ -0,0 +1,290 @@
+package armameeldoparti.utils.mixers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import armameeldoparti.models.Distribution;
+import armameeldoparti.models.Player;
+import armameeldoparti.models.Roster;
+import armameeldoparti.models.enums.Position;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Random distribution tests.
+ *
+ * <p>Checks that the distributions considering anchorages are uniform with a chi-square test, both over every possible distribution of a small
+ * roster and over whether two anchorages share a team in a roster with hundreds of players. The seeds are fixed, so the results never change.
+ *
+ * @author Bonino, Francisco Ignacio.
+ *
+ * @version 0.0.1
+ *
+ * @since 3.0
+ */
+class RandomMixerTest {
+
+  // ---------- Private constants --------------------------------------------------------------------------------------------------------------------
+
+  private static final int DRAWS_PER_DISTRIBUTION = 200;
+  private static final int LARGE_ROSTER_DRAWS = 5_000;
+  private static final int LARGE_ROSTER_TEAMS = 50;
+
+  /**
+   * Standard normal quantile of the 0.999 probability, so a uniform mixer fails a test once every thousand seeds.
+   */
+  private static final double NORMAL_QUANTILE = 3.090;
+
+  private static final Map<Position, Integer> PLAYERS_LIMIT_PER_POSITION = Map.of(Position.CENTRAL_DEFENDER, 1,
+                                                                                  Position.LATERAL_DEFENDER, 2,
+                                                                                  Position.MIDFIELDER, 2,
+                                                                                  Position.FORWARD, 1,
+                                                                                  Position.GOALKEEPER, 1);
+
+  private static final RandomMixer RANDOM_MIXER = new RandomMixer();
+
+  // ---------- Tests --------------------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * Every valid distribution of two teams, found by trying every split of the players, must be drawn about the same number of times.
+   */
+  @Test
+  void smallRosterDistributionsAreUniform() {
+    Map<Position, List<Player>> playersSets = createPlayersSets(2);
+
+    List<Player> players = playersSets.values()
+                                      .stream()
+                                      .flatMap(List::stream)
+                                      .toList();
+
+    List<List<Player>> anchorages = List.of(List.of(getPlayer(playersSets, Position.LATERAL_DEFENDER, 0),
+                                                    getPlayer(playersSets, Position.MIDFIELDER, 0)),
+                                            List.of(getPlayer(playersSets, Position.MIDFIELDER, 1),
+                                                    getPlayer(playersSets, Position.MIDFIELDER, 2),
+                                                    getPlayer(playersSets, Position.FORWARD, 0)));
+
+    Roster roster = new Roster(playersSets, PLAYERS_LIMIT_PER_POSITION, 2, anchorages);
+
+    Map<Long, Integer> drawsPerDistribution = new HashMap<>();
+
+    for (long firstTeamMask = 0; firstTeamMask < 1L << players.size(); firstTeamMask++) {
+      if (isValidFirstTeam(firstTeamMask, players, anchorages)) {
+        drawsPerDistribution.put(firstTeamMask, 0);
+      }
+    }
+
+    int draws = DRAWS_PER_DISTRIBUTION * drawsPerDistribution.size();
+
+    for (int draw = 0; draw < draws; draw++) {
+      long firstTeamMask = 0;
+
+      for (List<Player> positionPlayers : RANDOM_MIXER.withAnchorages(roster, draw)
+                                                      .getTeamPlayers(0)
+                                                      .values()) {
+        for (Player player : positionPlayers) {
+          firstTeamMask |= 1L << players.indexOf(player);
+        }
+      }
+
+      assertTrue(drawsPerDistribution.containsKey(firstTeamMask), "Distribución inválida");
+
+      drawsPerDistribution.merge(firstTeamMask, 1, Integer::sum);
+    }
+
+    double chiSquare = 0;
+
+    for (int distributionDraws : drawsPerDistribution.values()) {
+      chiSquare += Math.pow(distributionDraws - DRAWS_PER_DISTRIBUTION, 2) / DRAWS_PER_DISTRIBUTION;
+    }
+
+    assertTrue(chiSquare < getCriticalChiSquare(drawsPerDistribution.size() - 1), "Chi cuadrado: " + chiSquare);
+  }
+
+  /**
+   * Two anchorages must share a team as often as they do among all the valid distributions of a roster with hundreds of players.
+   *
+   * <p>Since the not anchored players of every position can complete the teams in as many ways as a multinomial coefficient, the distributions where
+   * the anchorages share one of the teams are to the ones where they do not as computed by {@link #getSharedTeamProbability}.
+   */
+  @Test
+  void largeRosterAnchoragesShareTeamsUniformly() {
+    Map<Position, List<Player>> playersSets = createPlayersSets(LARGE_ROSTER_TEAMS);
+
+    List<Player> firstAnchorage = List.of(getPlayer(playersSets, Position.LATERAL_DEFENDER, 0),
+                                          getPlayer(playersSets, Position.MIDFIELDER, 0));
+    List<Player> secondAnchorage = List.of(getPlayer(playersSets, Position.LATERAL_DEFENDER, 1),
+                                           getPlayer(playersSets, Position.FORWARD, 0));
+
+    Roster roster = new Roster(playersSets, PLAYERS_LIMIT_PER_POSITION, LARGE_ROSTER_TEAMS, List.of(firstAnchorage, secondAnchorage));
+
+    int sharedTeamDraws = 0;
+
+    for (int draw = 0; draw < LARGE_ROSTER_DRAWS; draw++) {
+      Distribution distribution = RANDOM_MIXER.withAnchorages(roster, draw);
+
+      assertEquals(LARGE_ROSTER_TEAMS, distribution.getTeamsCount());
+
+      for (int teamIndex = 0; teamIndex < LARGE_ROSTER_TEAMS; teamIndex++) {
+        Map<Position, List<Player>> teamPlayers = distribution.getTeamPlayers(teamIndex);
+
+        if (teamPlayers.get(Position.MIDFIELDER)
+                       .contains(firstAnchorage.get(1))
+            && teamPlayers.get(Position.FORWARD)
+                          .contains(secondAnchorage.get(1))) {
+          sharedTeamDraws++;
+        }
+      }
+    }
+
+    int separateTeamsDraws = LARGE_ROSTER_DRAWS - sharedTeamDraws;
+
+    double expectedSharedTeamDraws = LARGE_ROSTER_DRAWS * getSharedTeamProbability(firstAnchorage, secondAnchorage, LARGE_ROSTER_TEAMS);
+    double expectedSeparateTeamsDraws = LARGE_ROSTER_DRAWS - expectedSharedTeamDraws;
+
+    double chiSquare = Math.pow(sharedTeamDraws - expectedSharedTeamDraws, 2) / expectedSharedTeamDraws
+                       + Math.pow(separateTeamsDraws - expectedSeparateTeamsDraws, 2) / expectedSeparateTeamsDraws;
+
+    assertTrue(chiSquare < getCriticalChiSquare(1), "Chi cuadrado: " + chiSquare + ", mismo equipo: " + sharedTeamDraws);
+  }
+
+  // ---------- Private methods ----------------------------------------------------------------------------------------------------------------------
+
+  /**
+   * @param teamsCount Number of teams to fill.
+   *
+   * @return As many players of every position as needed to fill the teams, named after their position and index.
+   */
+  private static Map<Position, List<Player>> createPlayersSets(int teamsCount) {
+    Map<Position, List<Player>> playersSets = new EnumMap<>(Position.class);
+
+    for (Position position : Position.values()) {
+      List<Player> players = new ArrayList<>();
+
+      for (int playerIndex = 0; playerIndex < PLAYERS_LIMIT_PER_POSITION.get(position) * teamsCount; playerIndex++) {
+        players.add(new Player(position.name() + playerIndex, position));
+      }
+
+      playersSets.put(position, players);
+    }
+
+    return playersSets;
+  }
+
+  /**
+   * @param playersSets Players grouped by their position.
+   * @param position    Position of the player.
+   * @param index       Index of the player among the ones of its position.
+   *
+   * @return The player.
+   */
+  private static Player getPlayer(Map<Position, List<Player>> playersSets, Position position, int index) {
+    return playersSets.get(position)
+                      .get(index);
+  }
+
+  /**
+   * @param firstTeamMask Players of the first team, as bits of their indexes. The rest of the players make up the second team.
+   * @param players       Every player of the roster.
+   * @param anchorages    Anchored players grouped by their anchorage.
+   *
+   * @return Whether both teams respect the players limit per position and keep every anchorage together.
+   */
+  private static boolean isValidFirstTeam(long firstTeamMask, List<Player> players, List<List<Player>> anchorages) {
+    Map<Position, Integer> firstTeamCounts = new EnumMap<>(Position.class);
+
+    for (int playerIndex = 0; playerIndex < players.size(); playerIndex++) {
+      if ((firstTeamMask >>> playerIndex & 1) == 1) {
+        firstTeamCounts.merge(players.get(playerIndex)
+                                     .getPosition(), 1, Integer::sum);
+      }
+    }
+
+    for (Position position : Position.values()) {
+      if (firstTeamCounts.getOrDefault(position, 0) != PLAYERS_LIMIT_PER_POSITION.get(position)) {
+        return false;
+      }
+    }
+
+    for (List<Player> anchorage : anchorages) {
+      long anchoredInFirstTeam = anchorage.stream()
+                                          .filter(player -> (firstTeamMask >>> players.indexOf(player) & 1) == 1)
+                                          .count();
+
+      if (anchoredInFirstTeam != 0 && anchoredInFirstTeam != anchorage.size()) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Computes the probability that two anchorages share a team among all the valid distributions.
+   *
+   * <p>Every team with {@code c} anchored players of a position can be completed in a number of ways proportional to {@code 1 / (limit - c)!} for
+   * that position, so the distributions where both anchorages share one of the teams are to the ones where they are in two different teams as
+   * {@code product((limit - a)! (limit - b)! / ((limit - a - b)! limit!)) / (teams - 1)}, with the product taken over the positions.
+   *
+   * @param firstAnchorage  Players of the first anchorage.
+   * @param secondAnchorage Players of the second anchorage.
+   * @param teamsCount      Number of teams.
+   *
+   * @return The probability that both anchorages end up in the same team.
+   */
+  private static double getSharedTeamProbability(List<Player> firstAnchorage, List<Player> secondAnchorage, int teamsCount) {
+    double sharedToSeparateRatio = 1.0 / (teamsCount - 1);
+
+    for (Position position : Position.values()) {
+      int limit = PLAYERS_LIMIT_PER_POSITION.get(position);
+      int firstCount = (int) firstAnchorage.stream()
+                                           .filter(player -> player.getPosition() == position)
+                                           .count();
+      int secondCount = (int) secondAnchorage.stream()
+                                             .filter(player -> player.getPosition() == position)
+                                             .count();
+
+      if (firstCount + secondCount > limit) {
+        return 0;
+      }
+
+      sharedToSeparateRatio *= factorial(limit - firstCount) * factorial(limit - secondCount)
+                               / (factorial(limit - firstCount - secondCount) * factorial(limit));
+    }
+
+    return sharedToSeparateRatio / (1 + sharedToSeparateRatio);
+  }
+
+  /**
+   * Approximates the critical value of the chi-square distribution at the 0.999 probability with the Wilson-Hilferty transformation.
+   *
+   * @param degreesOfFreedom Degrees of freedom of the distribution.
+   *
+   * @return The value that a chi-square statistic exceeds once every thousand times.
+   */
+  private static double getCriticalChiSquare(int degreesOfFreedom) {
+    double variance = 2.0 / (9 * degreesOfFreedom);
+
+    return degreesOfFreedom * Math.pow(1 - variance + NORMAL_QUANTILE * Math.sqrt(variance), 3);
+  }
+
+  /**
+   * @param n Number to compute the factorial of.
+   *
+   * @return The factorial of the number.
+   */
+  private static double factorial(int n) {
+    double factorial = 1;
+
+    for (int i = 2; i <= n; i++) {
+      factorial *= i;
+    }
+
+    return factorial;
+  }
+}